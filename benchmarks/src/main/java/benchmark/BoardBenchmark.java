@@ -0,0 +1,81 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import data.Board;
+
+/**
+ * Measures the neighbor lookups and the printing of {@link Board} on the board
+ * in the middle of the scripted game.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+	private Board board;
+
+	/**
+	 * The cell whose neighbors are looked up: a corner, a border cell and the
+	 * center.
+	 */
+	@State(Scope.Thread)
+	public static class Coordinates {
+		@Param({ "0;0", "0;2", "2;2" })
+		private String cell;
+		private int x;
+		private int y;
+
+		@Setup
+		public void setUp() {
+			String[] values = cell.split(";");
+			x = Integer.parseInt(values[0]);
+			y = Integer.parseInt(values[1]);
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		board = ScriptedGame.play(ScriptedGame.MIDDLE).getBoard();
+	}
+
+	@Benchmark
+	public Object getNeighbors(Coordinates coordinates) {
+		return board.getNeighbors(coordinates.x, coordinates.y);
+	}
+
+	@Benchmark
+	public Object getUnblockedNeighbors(Coordinates coordinates) {
+		return board.getUnblockedNeighbors(coordinates.x, coordinates.y);
+	}
+
+	@Benchmark
+	public int getNeighborMask(Coordinates coordinates) {
+		return board.getNeighborMask(coordinates.x, coordinates.y);
+	}
+
+	@Benchmark
+	public int getUnblockedNeighborMask(Coordinates coordinates) {
+		return board.getUnblockedNeighborMask(coordinates.x, coordinates.y);
+	}
+
+	@Benchmark
+	public String print() {
+		return board.print();
+	}
+}
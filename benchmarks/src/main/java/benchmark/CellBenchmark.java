@@ -0,0 +1,63 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import data.Cell;
+
+/**
+ * Measures the queries of {@link Cell} over all cells of the board in the
+ * middle of the scripted game, which contain figures, towers, domes and empty
+ * cells.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CellBenchmark {
+	private Cell[] cells;
+
+	@Setup
+	public void setUp() {
+		Cell[][] rows = ScriptedGame.play(ScriptedGame.MIDDLE).getBoard().getCells();
+		cells = new Cell[rows.length * rows.length];
+		for (int x = 0; x < rows.length; x++) {
+			System.arraycopy(rows[x], 0, cells, x * rows.length, rows.length);
+		}
+	}
+
+	@Benchmark
+	public void isBlocked(Blackhole blackhole) {
+		for (Cell cell : cells) {
+			blackhole.consume(cell.isBlocked());
+		}
+	}
+
+	@Benchmark
+	public void getContainsTower(Blackhole blackhole) {
+		for (Cell cell : cells) {
+			blackhole.consume(cell.getContainsTower());
+		}
+	}
+
+	@Benchmark
+	public void getCellLevel(Blackhole blackhole) {
+		for (Cell cell : cells) {
+			blackhole.consume(cell.getCellLevel());
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.Game;
+import game.NullSink;
+
+/**
+ * Measures the check for the end of the game after an action and a complete
+ * game played through {@link Game#execute(String)}, like the terminal loop of
+ * {@link Game#main(String[])} does.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+	private Game middle;
+
+	@Setup
+	public void setUp() {
+		middle = ScriptedGame.play(ScriptedGame.MIDDLE);
+	}
+
+	@Benchmark
+	public boolean updateGameOn() {
+		middle.updateGameOn();
+		return middle.isGameOn();
+	}
+
+	@Benchmark
+	public Game scriptedGame() {
+		Game game = new Game(NullSink.INSTANCE);
+		game.initializePlayers(ScriptedGame.SETUP[0], ScriptedGame.SETUP[1], ScriptedGame.SETUP[2],
+				ScriptedGame.SETUP[3]);
+		for (String command : ScriptedGame.COMMANDS) {
+			if (!game.isGameOn() || !game.execute(command)) {
+				break;
+			}
+		}
+		return game;
+	}
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import game.Game;
+import game.NullSink;
+
+/**
+ * Contains a complete game played through the commands of the terminal and
+ * a helper to replay it without printing anything.
+ *
+ */
+final class ScriptedGame {
+	/**
+	 * the figures of both players as passed to {@link Game#main(String[])}
+	 */
+	static final String[] SETUP = { "a;1;1", "b;1;3", "c;3;1", "d;3;3" };
+	/**
+	 * the commands of a game of 22 turns that uses five cards and is won by the
+	 * second player
+	 */
+	static final String[] COMMANDS = {
+			"draw-card Demeter", "move a;1;2", "build C;0;2", "build C;0;3", "turn", "draw-card Hermes",
+			"move d;1;1", "build C;0;3", "turn", "draw-card Artemis", "move b;1;4", "move a;2;3",
+			"build C;4;0", "turn", "move d;0;1", "build C;3;0", "turn", "move b;1;3", "build C;0;2", "turn",
+			"print", "bag", "cellprint 0;2", "move d;1;1", "build C;2;0", "turn", "draw-card Atlas",
+			"move b;2;4", "build C;0;1", "turn", "move d;0;1", "build C;4;1", "turn", "move a;3;2",
+			"build C;0;2", "turn", "move c;3;0", "build C;4;1", "turn", "move a;3;1", "build C;4;1", "turn",
+			"move c;2;0", "build C;3;0", "turn", "move b;1;3", "build C;1;1", "turn", "move d;1;1",
+			"build C;1;0", "turn", "move a;2;1", "build C;1;2", "turn", "print", "bag", "cellprint 0;2",
+			"move c;3;0", "build C;1;2", "turn", "move b;2;3", "build D;4;1", "turn", "draw-card Athena",
+			"move d;1;2", "build C;1;1", "turn", "move a;3;1", "build D;0;2", "turn", "move c;2;1",
+			"build C;1;1", "turn", "move a;3;2", "build C;0;4", "turn", "print", "move d;1;1"
+	};
+	/**
+	 * the number of commands played to reach a position in the middle of the game
+	 */
+	static final int MIDDLE = 56;
+
+	private ScriptedGame() {
+	}
+
+	/**
+	 * Creates a game and plays the given number of commands of the script.
+	 *
+	 * @param commands the number of commands to play
+	 * @return the game
+	 */
+	static Game play(int commands) {
+		Game game = new Game(NullSink.INSTANCE);
+		game.initializePlayers(SETUP[0], SETUP[1], SETUP[2], SETUP[3]);
+		for (int i = 0; i < commands; i++) {
+			game.execute(COMMANDS[i]);
+		}
+		return game;
+	}
+}
@@ -0,0 +1,103 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import data.BitBoard;
+
+/**
+ * Plays random games and compares the output of print and cellprint with the
+ * board of a {@link Position} that plays the same turns, after every turn and
+ * after taking a turn back.
+ *
+ */
+class BoardOutputTest {
+	private static final String[] NAMES = { "a", "b", "c", "d" };
+	private static final int GAMES = 100;
+
+	@Test
+	void printMatchesThePlayedBoard() {
+		Random random = new Random(1);
+		TurnGenerator generator = new TurnGenerator();
+		int[] turns = new int[TurnGenerator.MAX_TURNS];
+		MemorySink output = new MemorySink();
+		for (int i = 0; i < GAMES; i++) {
+			Game game = new Game(output);
+			game.initializePlayers("a;1;1", "b;1;3", "c;3;1", "d;3;3");
+			Position position = new Position(game);
+			Position previous = new Position();
+			while (game.isGameOn()) {
+				int turn = turns[random.nextInt(generator.generate(position, turns))];
+				List<String> commands = TurnCode.toCommands(turn, position);
+				previous.copyFrom(position);
+				for (String command : commands) {
+					game.execute(command);
+				}
+				position.make(turn);
+				assertBoard(position, game, output);
+				if (random.nextInt(4) == 0) {
+					for (int j = 0; j < commands.size(); j++) {
+						game.undo();
+					}
+					assertBoard(previous, game, output);
+					for (int j = 0; j < commands.size(); j++) {
+						game.redo();
+					}
+				}
+			}
+		}
+	}
+
+	private static void assertBoard(Position position, Game game, MemorySink output) {
+		BitBoard board = position.getBoard();
+		StringBuilder expected = new StringBuilder();
+		for (int x = 0; x < BitBoard.SIZE; x++) {
+			for (int y = 0; y < BitBoard.SIZE; y++) {
+				int square = BitBoard.square(x, y);
+				String top = getWorker(board, square);
+				if (top == null) {
+					top = board.isDome(square) ? "D" : board.getHeight(square) > 0 ? "C" : ".";
+				}
+				expected.append(y == 0 ? "" : ",").append(top);
+			}
+			expected.append(x < BitBoard.SIZE - 1 ? "\n" : "");
+		}
+		assertEquals(expected.toString(), print(game, output, "print"));
+		for (int square = 0; square < BitBoard.CELLS; square++) {
+			assertEquals(getCellprint(board, square),
+					print(game, output, "cellprint " + BitBoard.getX(square) + ";" + BitBoard.getY(square)));
+		}
+	}
+
+	private static String getCellprint(BitBoard board, int square) {
+		StringBuilder expected = new StringBuilder();
+		for (int level = 0; level < board.getHeight(square); level++) {
+			expected.append(level == 0 ? "C" : ",C");
+		}
+		String top = board.isDome(square) ? "D" : getWorker(board, square);
+		if (top != null) {
+			expected.append(expected.length() == 0 ? "" : ",").append(top);
+		}
+		return expected.length() == 0 ? "Empty" : expected.toString();
+	}
+
+	private static String getWorker(BitBoard board, int square) {
+		for (int worker = 0; worker < NAMES.length; worker++) {
+			if (board.getWorker(worker) == square) {
+				return NAMES[worker];
+			}
+		}
+		return null;
+	}
+
+	private static String print(Game game, MemorySink output, String command) {
+		output.clear();
+		game.execute(command);
+		String printed = output.getOutput();
+		return printed.substring(0, printed.length() - System.lineSeparator().length());
+	}
+}
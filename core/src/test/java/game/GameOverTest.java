@@ -0,0 +1,61 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import data.BitBoard;
+
+/**
+ * Plays random games and checks that the game only ends when the rules say so:
+ * every position in which the game is still on has a legal turn, and the game
+ * ends after the same turns as a {@link Position} that plays along.
+ *
+ */
+class GameOverTest {
+	private static final int GAMES = 500;
+
+	@Test
+	void everyPositionInPlayHasALegalTurn() {
+		Random random = new Random(1);
+		TurnGenerator generator = new TurnGenerator();
+		int[] turns = new int[TurnGenerator.MAX_TURNS];
+		for (int i = 0; i < GAMES; i++) {
+			Game game = new Game(NullSink.INSTANCE);
+			String[] figures = createFigures(random);
+			game.initializePlayers(figures[0], figures[1], figures[2], figures[3]);
+			Position position = new Position(game);
+			while (game.isGameOn()) {
+				int count = generator.generate(position, turns);
+				assertTrue(count > 0, "no legal turn in " + String.join(" ", figures) + " after "
+						+ game.getHistory().length + " actions");
+				int turn = turns[random.nextInt(count)];
+				for (String command : TurnCode.toCommands(turn, position)) {
+					game.execute(command);
+				}
+				position.make(turn);
+				assertEquals(position.isGameOver(), !game.isGameOn());
+			}
+		}
+	}
+
+	/**
+	 * @return four figures on different random cells
+	 */
+	private static String[] createFigures(Random random) {
+		String[] figures = new String[4];
+		int used = 0;
+		for (int figure = 0; figure < 4; figure++) {
+			int square;
+			do {
+				square = random.nextInt(BitBoard.CELLS);
+			} while ((used >> square & 1) != 0);
+			used |= 1 << square;
+			figures[figure] = (char) ('a' + figure) + ";" + BitBoard.getX(square) + ";" + BitBoard.getY(square);
+		}
+		return figures;
+	}
+}
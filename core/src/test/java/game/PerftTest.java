@@ -0,0 +1,29 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the turns of {@link TurnGenerator} with the commands {@link Game}
+ * accepts, see {@link Perft#divideWithGame}.
+ *
+ */
+class PerftTest {
+
+	@Test
+	void turnsMatchTheGameFromTheStandardSetup() {
+		assertSameTurns("a;1;1", "b;1;3", "c;3;1", "d;3;3");
+	}
+
+	@Test
+	void turnsMatchTheGameFromTheEdges() {
+		assertSameTurns("a;0;0", "b;4;4", "c;0;1", "d;4;0");
+	}
+
+	private static void assertSameTurns(String... setup) {
+		Game game = new Game(NullSink.INSTANCE);
+		game.initializePlayers(setup[0], setup[1], setup[2], setup[3]);
+		assertEquals(Perft.divideWithGame(setup, 1), Perft.divide(new Position(game), 1, false));
+	}
+}
@@ -0,0 +1,183 @@
+package archive;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import data.CardSet;
+import edu.kit.informatik.Terminal;
+
+/**
+ * Computes {@link Statistics} over archives of recorded games on a fork-join
+ * pool. The records of an archive are split into regions that are counted by
+ * the threads of the pool. Each thread counts into its own statistics, which
+ * are merged when all regions are done.
+ *
+ * <p>
+ * Usage: {@code Analytics <archive>... [replay]}, where replay checks every
+ * record by playing it again with the rules of {@link game.Game}.
+ *
+ */
+public class Analytics {
+	/**
+	 * the number of records below which a region is not split any further
+	 */
+	private static final int REGION = 1 << 14;
+	private final boolean replay;
+	/**
+	 * the statistics of the current thread in the current analysis
+	 */
+	private ThreadLocal<Statistics> local;
+
+	/**
+	 * @param replay true to check every record by playing it again
+	 */
+	public Analytics(boolean replay) {
+		this.replay = replay;
+	}
+
+	/**
+	 * Counts the records of the given archives.
+	 *
+	 * @param readers the archives
+	 * @return the merged statistics
+	 */
+	public Statistics analyze(List<RecordReader> readers) {
+		Queue<Statistics> created = new ConcurrentLinkedQueue<Statistics>();
+		local = ThreadLocal.withInitial(() -> {
+			Statistics statistics = new Statistics();
+			created.add(statistics);
+			return statistics;
+		});
+		List<RegionTask> tasks = new ArrayList<RegionTask>();
+		for (RecordReader reader : readers) {
+			tasks.add(new RegionTask(reader, 0, reader.size()));
+		}
+		ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+		Statistics result = new Statistics();
+		for (Statistics statistics : created) {
+			result.merge(statistics);
+		}
+		return result;
+	}
+
+	/**
+	 * Counts the records of a region, or splits it in two halves.
+	 */
+	private class RegionTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final RecordReader reader;
+		private final long from;
+		private final long to;
+
+		RegionTask(RecordReader reader, long from, long to) {
+			this.reader = reader;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > REGION) {
+				long middle = (from + to) >>> 1;
+				invokeAll(new RegionTask(reader, from, middle), new RegionTask(reader, middle, to));
+				return;
+			}
+			Statistics statistics = local.get();
+			GameRecord record = new GameRecord();
+			for (long number = from; number < to; number++) {
+				statistics.add(reader.read(number, record), replay);
+			}
+		}
+	}
+
+	/**
+	 * Prints the statistics as tables.
+	 *
+	 * @param statistics the statistics
+	 */
+	public static void print(Statistics statistics) {
+		long games = statistics.getGames();
+		Terminal.printLine("games: " + games);
+		Terminal.printLine("p1 wins: " + statistics.getResults(0) + " (" + percent(statistics.getResults(0), games)
+				+ ")");
+		Terminal.printLine("p2 wins: " + statistics.getResults(1) + " (" + percent(statistics.getResults(1), games)
+				+ ")");
+		Terminal.printLine("unfinished: " + statistics.getResults(2));
+		Terminal.printLine("");
+		Terminal.printLine("card       drawn      won        correlation");
+		for (int card = 0; card < CardSet.size(); card++) {
+			long drawn = statistics.getCardGames(card);
+			Terminal.printLine(String.format("%-10s %-10d %-10s %+.3f", CardSet.getSymbol(card), drawn,
+					percent(statistics.getCardWins(card), drawn), statistics.getCorrelation(card)));
+		}
+		Terminal.printLine("");
+		Terminal.printLine("turns      games");
+		long total = 0;
+		long median = -1;
+		for (int turns = 0; turns <= Statistics.MAX_TURNS; turns++) {
+			long count = statistics.getLengths(turns);
+			total += count;
+			if (median < 0 && 2 * total >= games) {
+				median = turns;
+			}
+			if (count > 0) {
+				Terminal.printLine(String.format("%-10s %d", turns == Statistics.MAX_TURNS ? turns + "+" : turns,
+						count));
+			}
+		}
+		Terminal.printLine("median: " + median);
+		Terminal.printLine("");
+		Terminal.printLine("opening                  games      p1 wins    p2 wins");
+		List<Map.Entry<Integer, long[]>> openings = new ArrayList<Map.Entry<Integer, long[]>>(
+				statistics.getOpenings().entrySet());
+		openings.sort((first, second) -> Long.compare(second.getValue()[0], first.getValue()[0]));
+		for (Map.Entry<Integer, long[]> entry : openings.subList(0, Math.min(10, openings.size()))) {
+			long[] counts = entry.getValue();
+			Terminal.printLine(String.format("%-24s %-10d %-10s %s", Statistics.formatOpening(entry.getKey()),
+					counts[0], percent(counts[1], counts[0]), percent(counts[2], counts[0])));
+		}
+		if (statistics.getInvalid() > 0) {
+			Terminal.printLine("");
+			Terminal.printLine("invalid records: " + statistics.getInvalid());
+		}
+	}
+
+	private static String percent(long count, long total) {
+		return total == 0 ? "-" : String.format("%.1f%%", 100.0 * count / total);
+	}
+
+	public static void main(String[] args) throws IOException {
+		List<RecordReader> readers = new ArrayList<RecordReader>();
+		boolean replay = false;
+		for (String arg : args) {
+			if (arg.equals("replay")) {
+				replay = true;
+			} else {
+				readers.add(new RecordReader(Paths.get(arg)));
+			}
+		}
+		if (readers.isEmpty()) {
+			Terminal.printError("please enter one or more archives of games.");
+			return;
+		}
+		long start = System.nanoTime();
+		Statistics statistics = new Analytics(replay).analyze(readers);
+		print(statistics);
+		Terminal.printLine("");
+		Terminal.printLine("time: " + (System.nanoTime() - start) / 1000000 + " ms");
+	}
+}
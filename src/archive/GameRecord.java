@@ -0,0 +1,295 @@
+package archive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import data.BitBoard;
+import data.CardSet;
+import elements.Figure;
+import game.Game;
+import game.OutputSink;
+import game.UndoRecord;
+
+/**
+ * A complete game in its binary form, read in place from a buffer. A record
+ * starts with its length in two bytes, not counting these two bytes, followed
+ * by the winner plus one in one byte, 0 if the game is still on. For each of
+ * the four figures follow its initial cell and the length of its name in one
+ * byte each and the characters of its name. The rest of the record contains
+ * one byte per successful action:
+ *
+ * <pre>
+ * 1ffsssss  move of figure f to cell s
+ * 01dsssss  build on cell s, d is set for a dome
+ * 00100ccc  draw card c
+ * 00000001  end of the turn
+ * 00000010  surrender of the player in turn
+ * </pre>
+ *
+ * The figures are numbered from 0 to 3, the first two belong to the first
+ * player. The cells and cards are numbered as in {@link BitBoard} and
+ * {@link CardSet}. A view can be moved to another record, so a reader creates
+ * no objects per record.
+ *
+ */
+public class GameRecord {
+	/**
+	 * the maximum number of bytes of a record, including its length
+	 */
+	public static final int MAX_BYTES = 2 + 0xFFFF;
+	public static final int MOVE = 0x80;
+	public static final int BUILD = 0x40;
+	public static final int DRAW = 0x20;
+	public static final int TURN = 0x01;
+	public static final int SURRENDER = 0x02;
+	private ByteBuffer buffer;
+	/**
+	 * the index of the length of the record in the buffer
+	 */
+	private int start;
+	/**
+	 * the index of the first action
+	 */
+	private int actions;
+	private int end;
+
+	/**
+	 * Moves the view to the record at the given index of the buffer.
+	 *
+	 * @param buffer the buffer
+	 * @param start  the index of the record
+	 * @return this view
+	 */
+	public GameRecord wrap(ByteBuffer buffer, int start) {
+		this.buffer = buffer;
+		this.start = start;
+		this.end = start + 2 + (buffer.getShort(start) & 0xFFFF);
+		int index = start + 3;
+		for (int figure = 0; figure < 4; figure++) {
+			index += 2 + (buffer.get(index + 1) & 0xFF);
+		}
+		this.actions = index;
+		return this;
+	}
+
+	/**
+	 * @return the number of bytes of the record, including its length
+	 */
+	public int getSize() {
+		return end - start;
+	}
+
+	/**
+	 * @return the winning player, 0 or 1, or -1 if the game is still on
+	 */
+	public int getWinner() {
+		return (buffer.get(start + 2) & 0xFF) - 1;
+	}
+
+	/**
+	 * @param figure the number of a figure
+	 * @return the cell the figure was placed on
+	 */
+	public int getInitialSquare(int figure) {
+		return buffer.get(getFigureIndex(figure)) & 0xFF;
+	}
+
+	/**
+	 * @param figure the number of a figure
+	 * @return the name of the figure
+	 */
+	public String getFigureName(int figure) {
+		int index = getFigureIndex(figure);
+		byte[] name = new byte[buffer.get(index + 1) & 0xFF];
+		for (int i = 0; i < name.length; i++) {
+			name[i] = buffer.get(index + 2 + i);
+		}
+		return new String(name, StandardCharsets.US_ASCII);
+	}
+
+	private int getFigureIndex(int figure) {
+		int index = start + 3;
+		for (int i = 0; i < figure; i++) {
+			index += 2 + (buffer.get(index + 1) & 0xFF);
+		}
+		return index;
+	}
+
+	/**
+	 * @return the number of actions
+	 */
+	public int getActionCount() {
+		return end - actions;
+	}
+
+	/**
+	 * @param index the number of the action
+	 * @return the action, see {@link GameRecord}
+	 */
+	public int getAction(int index) {
+		return buffer.get(actions + index) & 0xFF;
+	}
+
+	public static boolean isMove(int action) {
+		return (action & MOVE) != 0;
+	}
+
+	public static boolean isBuild(int action) {
+		return (action & 0xC0) == BUILD;
+	}
+
+	public static boolean isDraw(int action) {
+		return (action & 0xE0) == DRAW;
+	}
+
+	public static boolean isTurn(int action) {
+		return action == TURN;
+	}
+
+	public static boolean isSurrender(int action) {
+		return action == SURRENDER;
+	}
+
+	/**
+	 * @param action a move
+	 * @return the number of the moved figure
+	 */
+	public static int getFigure(int action) {
+		return action >>> 5 & 3;
+	}
+
+	/**
+	 * @param action a move or a build
+	 * @return the cell
+	 */
+	public static int getSquare(int action) {
+		return action & 31;
+	}
+
+	/**
+	 * @param action a build
+	 * @return true for a dome
+	 */
+	public static boolean isDome(int action) {
+		return (action & 0x20) != 0;
+	}
+
+	/**
+	 * @param action a drawn card
+	 * @return the number of the card
+	 */
+	public static int getCard(int action) {
+		return action & 7;
+	}
+
+	/**
+	 * Plays the game of this record again through the commands of {@link Game}.
+	 * The replay stops at the first action the rules reject, so the history of
+	 * the game is shorter than the record if the record is not valid.
+	 *
+	 * @param output the sink of the output of the game
+	 * @return the game after the last accepted action
+	 */
+	public Game replay(OutputSink output) {
+		Game game = new Game(output);
+		String[] names = new String[4];
+		String[] figures = new String[4];
+		for (int figure = 0; figure < 4; figure++) {
+			int square = getInitialSquare(figure);
+			names[figure] = getFigureName(figure);
+			figures[figure] = names[figure] + ";" + BitBoard.getX(square) + ";" + BitBoard.getY(square);
+		}
+		game.initializePlayers(figures[0], figures[1], figures[2], figures[3]);
+		for (int i = 0; i < getActionCount(); i++) {
+			int action = getAction(i);
+			String cell = ";" + BitBoard.getX(getSquare(action)) + ";" + BitBoard.getY(getSquare(action));
+			String command;
+			if (isMove(action)) {
+				command = "move " + names[getFigure(action)] + cell;
+			} else if (isBuild(action)) {
+				command = "build " + (isDome(action) ? "D" : "C") + cell;
+			} else if (isDraw(action)) {
+				command = "draw-card " + CardSet.getSymbol(getCard(action));
+			} else if (isSurrender(action)) {
+				command = "surrender";
+			} else {
+				command = "turn";
+			}
+			long key = game.getKey();
+			game.execute(command);
+			if (game.getKey() == key) {
+				break;
+			}
+		}
+		return game;
+	}
+
+	/**
+	 * Writes the record of the given game, which must have been started with
+	 * {@link Game#initializePlayers}. The initial cells of the figures are found
+	 * by taking back their moves.
+	 *
+	 * @param game   the game
+	 * @param buffer the buffer, with at least {@link #MAX_BYTES} remaining
+	 * @throws IllegalArgumentException if a figure name is longer than 255
+	 *                                  characters or the record is too long
+	 */
+	public static void encode(Game game, ByteBuffer buffer) {
+		int[] history = game.getHistory();
+		Figure[] figures = { game.getFirstPlayer().getFigures()[0], game.getFirstPlayer().getFigures()[1],
+				game.getSecondPlayer().getFigures()[0], game.getSecondPlayer().getFigures()[1] };
+		int[] squares = new int[4];
+		for (int figure = 0; figure < 4; figure++) {
+			squares[figure] = BitBoard.square(figures[figure].getX(), figures[figure].getY());
+		}
+		for (int i = history.length - 1; i >= 0; i--) {
+			int type = UndoRecord.getType(history[i]);
+			int figure = UndoRecord.getFigure(history[i]);
+			if (type == UndoRecord.APOLLO) {
+				for (int other = 0; other < 4; other++) {
+					if (squares[other] == UndoRecord.getFrom(history[i])) {
+						squares[other] = UndoRecord.getTarget(history[i]);
+					}
+				}
+			}
+			if (type == UndoRecord.MOVE || type == UndoRecord.APOLLO) {
+				squares[figure] = UndoRecord.getFrom(history[i]);
+			}
+		}
+		int start = buffer.position();
+		buffer.putShort((short) 0);
+		buffer.put((byte) (game.isGameOn() ? 0 : game.getActivePlayer() == game.getFirstPlayer() ? 1 : 2));
+		for (int figure = 0; figure < 4; figure++) {
+			byte[] name = figures[figure].getName().getBytes(StandardCharsets.US_ASCII);
+			if (name.length > 0xFF) {
+				throw new IllegalArgumentException("the name of a figure is too long");
+			}
+			buffer.put((byte) squares[figure]).put((byte) name.length).put(name);
+		}
+		for (int record : history) {
+			int target = UndoRecord.getTarget(record);
+			switch (UndoRecord.getType(record)) {
+			case UndoRecord.MOVE:
+			case UndoRecord.APOLLO:
+				buffer.put((byte) (MOVE | UndoRecord.getFigure(record) << 5 | target));
+				break;
+			case UndoRecord.BUILD:
+				buffer.put((byte) (BUILD | (UndoRecord.isDome(record) ? 0x20 : 0) | target));
+				break;
+			case UndoRecord.DRAW:
+				buffer.put((byte) (DRAW | target));
+				break;
+			case UndoRecord.SURRENDER:
+				buffer.put((byte) SURRENDER);
+				break;
+			default:
+				buffer.put((byte) TURN);
+			}
+		}
+		int length = buffer.position() - start - 2;
+		if (length > 0xFFFF) {
+			throw new IllegalArgumentException("the game is too long for a record");
+		}
+		buffer.putShort(start, (short) length);
+	}
+}
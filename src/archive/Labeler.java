@@ -0,0 +1,259 @@
+package archive;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import data.BitBoard;
+import edu.kit.informatik.Terminal;
+import game.Game;
+import game.NullSink;
+import game.Position;
+import search.ProofSearch;
+
+/**
+ * Labels the positions of archived games as won or lost for the player in
+ * turn with a {@link ProofSearch}. The positions at the start of the last turns
+ * of each game are labeled. The records are split into regions like in
+ * {@link Analytics}, each thread of the pool uses its own search and table.
+ *
+ * <p>
+ * Usage:
+ * {@code Labeler <archive>... [-nodes <n>] [-last <n>] [-megabytes <n>] [-output <file>]},
+ * where nodes limits the search of each position, last is the number of turns
+ * labeled per game and megabytes the size of the proof table of each thread.
+ * The output file gets a line {@code <archive> <record> <turn> <label>} for
+ * every labeled position.
+ *
+ */
+public class Labeler {
+	/**
+	 * the number of records below which a region is not split any further
+	 */
+	private static final int REGION = 1 << 10;
+	private static final String[] LABELS = { "loss", "unknown", "win" };
+	private final long maxNodes;
+	private final int last;
+	private final int megabytes;
+	/**
+	 * the worker of the current thread in the current run
+	 */
+	private ThreadLocal<Worker> local;
+	/**
+	 * the output of each region which has been labeled
+	 */
+	private Queue<RegionTask> done;
+
+	/**
+	 * @param maxNodes  the maximum number of positions expanded per label
+	 * @param last      the number of turns labeled at the end of each game
+	 * @param megabytes the size of the proof table of each thread
+	 */
+	public Labeler(long maxNodes, int last, int megabytes) {
+		this.maxNodes = maxNodes;
+		this.last = last;
+		this.megabytes = megabytes;
+	}
+
+	/**
+	 * The search and the counts of one thread.
+	 */
+	private class Worker {
+		private final ProofSearch search = new ProofSearch(megabytes);
+		private final long[] counts = new long[LABELS.length];
+		private long nodes;
+	}
+
+	/**
+	 * Labels the positions of the given archives.
+	 *
+	 * @param readers the archives
+	 * @param output  the file for the labels or null
+	 * @return the number of losses, unknown positions and wins, and the number of
+	 *         expanded positions
+	 * @throws IOException if the labels cant be written
+	 */
+	public long[] label(List<RecordReader> readers, Path output) throws IOException {
+		Queue<Worker> created = new ConcurrentLinkedQueue<Worker>();
+		local = ThreadLocal.withInitial(() -> {
+			Worker worker = new Worker();
+			created.add(worker);
+			return worker;
+		});
+		done = new ConcurrentLinkedQueue<RegionTask>();
+		List<RegionTask> tasks = new ArrayList<RegionTask>();
+		for (int archive = 0; archive < readers.size(); archive++) {
+			tasks.add(new RegionTask(archive, readers.get(archive), 0, readers.get(archive).size(), output != null));
+		}
+		ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+		if (output != null) {
+			List<RegionTask> regions = new ArrayList<RegionTask>(done);
+			regions.sort(Comparator.comparingInt((RegionTask task) -> task.archive)
+					.thenComparingLong(task -> task.from));
+			try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+				for (RegionTask region : regions) {
+					writer.append(region.lines);
+				}
+			}
+		}
+		long[] result = new long[LABELS.length + 1];
+		for (Worker worker : created) {
+			for (int i = 0; i < LABELS.length; i++) {
+				result[i] += worker.counts[i];
+			}
+			result[LABELS.length] += worker.nodes;
+		}
+		return result;
+	}
+
+	/**
+	 * Labels the records of a region, or splits it in two halves.
+	 */
+	private class RegionTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int archive;
+		private final RecordReader reader;
+		private final long from;
+		private final long to;
+		private final StringBuilder lines;
+
+		RegionTask(int archive, RecordReader reader, long from, long to, boolean write) {
+			this.archive = archive;
+			this.reader = reader;
+			this.from = from;
+			this.to = to;
+			this.lines = write ? new StringBuilder() : null;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > REGION) {
+				long middle = (from + to) >>> 1;
+				invokeAll(new RegionTask(archive, reader, from, middle, lines != null),
+						new RegionTask(archive, reader, middle, to, lines != null));
+				return;
+			}
+			Worker worker = local.get();
+			GameRecord record = new GameRecord();
+			for (long number = from; number < to; number++) {
+				label(worker, reader.read(number, record), number);
+			}
+			if (lines != null) {
+				done.add(this);
+			}
+		}
+
+		/**
+		 * Plays the record on a position and labels the starts of its last turns.
+		 */
+		private void label(Worker worker, GameRecord record, long number) {
+			int turns = 1;
+			for (int i = 0; i < record.getActionCount(); i++) {
+				turns += GameRecord.isTurn(record.getAction(i)) ? 1 : 0;
+			}
+			Position position = start(record);
+			int turn = 0;
+			for (int i = 0; i <= record.getActionCount(); i++) {
+				if (i == 0 || GameRecord.isTurn(record.getAction(i - 1))) {
+					if (turn >= turns - last) {
+						int result = worker.search.solve(position, maxNodes);
+						++worker.counts[result + 1];
+						worker.nodes += worker.search.getNodes();
+						if (lines != null) {
+							lines.append(archive).append(' ').append(number).append(' ').append(turn).append(' ')
+									.append(LABELS[result + 1]).append(System.lineSeparator());
+						}
+					}
+					++turn;
+				}
+				if (i < record.getActionCount()) {
+					play(position, record.getAction(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param record a record
+	 * @return the position at the start of the recorded game
+	 */
+	private static Position start(GameRecord record) {
+		String[] figures = new String[4];
+		for (int figure = 0; figure < 4; figure++) {
+			int square = record.getInitialSquare(figure);
+			figures[figure] = record.getFigureName(figure) + ";" + BitBoard.getX(square) + ";"
+					+ BitBoard.getY(square);
+		}
+		Game game = new Game(NullSink.INSTANCE);
+		game.initializePlayers(figures[0], figures[1], figures[2], figures[3]);
+		return new Position(game);
+	}
+
+	/**
+	 * Applies a recorded action to a position. A surrender leaves it unchanged.
+	 */
+	private static void play(Position position, int action) {
+		if (GameRecord.isTurn(action)) {
+			position.endTurn();
+		} else if (GameRecord.isDraw(action)) {
+			position.drawCard(GameRecord.getCard(action));
+		} else if (GameRecord.isMove(action)) {
+			position.move(GameRecord.getFigure(action), GameRecord.getSquare(action));
+		} else if (GameRecord.isBuild(action)) {
+			position.build(GameRecord.getSquare(action), GameRecord.isDome(action));
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		List<RecordReader> readers = new ArrayList<RecordReader>();
+		long maxNodes = 10000;
+		int last = 4;
+		int megabytes = 64;
+		Path output = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("-nodes")) {
+					maxNodes = Long.parseLong(args[++i]);
+				} else if (args[i].equals("-last")) {
+					last = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-megabytes")) {
+					megabytes = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-output")) {
+					output = Paths.get(args[++i]);
+				} else {
+					readers.add(new RecordReader(Paths.get(args[i])));
+				}
+			}
+		} catch (RuntimeException e) {
+			readers.clear();
+		}
+		if (readers.isEmpty()) {
+			Terminal.printError("please enter one or more archives of games.");
+			return;
+		}
+		long start = System.nanoTime();
+		long[] result = new Labeler(maxNodes, last, megabytes).label(readers, output);
+		for (int i = LABELS.length - 1; i >= 0; i--) {
+			Terminal.printLine(LABELS[i] + ": " + result[i]);
+		}
+		Terminal.printLine("nodes: " + result[LABELS.length]);
+		Terminal.printLine("time: " + (System.nanoTime() - start) / 1000000 + " ms");
+	}
+}
@@ -0,0 +1,143 @@
+package archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the records of an archive written by {@link RecordWriter} from memory
+ * mapped files, without copying them. A mapped buffer can hold at most 2 GB,
+ * so larger files are mapped in windows of 1 GB. The windows of the archive
+ * overlap by the size of the largest record, so every record lies completely
+ * in the window in which it starts. If the index is missing, the positions of
+ * the records are found by reading the whole archive once. The reader can be
+ * shared between threads as long as each thread uses its own
+ * {@link GameRecord}.
+ *
+ */
+public class RecordReader {
+	/**
+	 * the first eight bytes of an archive, "SANTREC1"
+	 */
+	public static final long MAGIC = 0x53414E5452454331L;
+	private static final long WINDOW = 1L << 30;
+	private final ByteBuffer[] archive;
+	/**
+	 * the windows of the index or null if the index is kept in positions
+	 */
+	private final ByteBuffer[] index;
+	private final long[] positions;
+	private final long archiveSize;
+	private final long size;
+
+	/**
+	 * Opens the given archive and its index.
+	 *
+	 * @param path the path of the archive
+	 * @throws IOException if the archive cant be read
+	 */
+	public RecordReader(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			archive = map(channel, GameRecord.MAX_BYTES);
+			archiveSize = channel.size();
+			if (archiveSize < Long.BYTES || archive[0].getLong(0) != MAGIC) {
+				throw new IOException(path + " is not an archive of games");
+			}
+		}
+		Path indexPath = RecordWriter.getIndexPath(path);
+		if (Files.exists(indexPath)) {
+			try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+				index = map(channel, 0);
+				size = channel.size() / Long.BYTES;
+			}
+			positions = null;
+		} else {
+			index = null;
+			positions = scan();
+			size = positions.length;
+		}
+	}
+
+	/**
+	 * Maps the given file in windows that overlap by the given number of bytes.
+	 */
+	private static ByteBuffer[] map(FileChannel channel, long overlap) throws IOException {
+		long length = channel.size();
+		ByteBuffer[] windows = new ByteBuffer[(int) Math.max(1, (length + WINDOW - 1) / WINDOW)];
+		for (int i = 0; i < windows.length; i++) {
+			long start = i * WINDOW;
+			long end = Math.min(length, start + WINDOW + overlap);
+			windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+		}
+		return windows;
+	}
+
+	/**
+	 * Finds the positions of the records by following their lengths.
+	 */
+	private long[] scan() {
+		long[] found = new long[1024];
+		int count = 0;
+		long position = Long.BYTES;
+		while (position + 2 <= archiveSize) {
+			ByteBuffer window = archive[(int) (position / WINDOW)];
+			int offset = (int) (position % WINDOW);
+			int length = 2 + (window.getShort(offset) & 0xFFFF);
+			if (offset + length > window.limit()) {
+				break;
+			}
+			if (count == found.length) {
+				found = Arrays.copyOf(found, 2 * count);
+			}
+			found[count++] = position;
+			position += length;
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * @return the number of records
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @param number the number of a record, from 0 to {@link #size()} - 1
+	 * @return the position of the record in the archive
+	 */
+	public long getPosition(long number) {
+		if (number < 0 || number >= size) {
+			throw new IndexOutOfBoundsException("there is no record " + number);
+		}
+		if (index == null) {
+			return positions[(int) number];
+		}
+		long position = number * Long.BYTES;
+		return index[(int) (position / WINDOW)].getLong((int) (position % WINDOW));
+	}
+
+	/**
+	 * Moves the given view to a record.
+	 *
+	 * @param number the number of the record
+	 * @param record the view
+	 * @return the view
+	 */
+	public GameRecord read(long number, GameRecord record) {
+		long position = getPosition(number);
+		return record.wrap(archive[(int) (position / WINDOW)], (int) (position % WINDOW));
+	}
+
+	/**
+	 * @param number the number of a record
+	 * @return a new view of the record
+	 */
+	public GameRecord read(long number) {
+		return read(number, new GameRecord());
+	}
+}
@@ -0,0 +1,93 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import game.Game;
+
+/**
+ * Appends game records to an archive. The archive starts with
+ * {@link RecordReader#MAGIC} and contains the records one after the other. The
+ * index next to it, whose path is the one of the archive followed by
+ * {@code .idx}, contains the position of each record in eight bytes. A record
+ * is written before its position, so an index never points past the archive.
+ * An instance must not be shared between threads.
+ *
+ */
+public class RecordWriter implements Closeable {
+	private final FileChannel archive;
+	private final FileChannel index;
+	private final ByteBuffer record;
+	private final ByteBuffer position;
+	/**
+	 * the size of the archive
+	 */
+	private long size;
+
+	/**
+	 * Opens the given archive and its index, they are created if they dont exist.
+	 *
+	 * @param path the path of the archive
+	 * @throws IOException if the files cant be opened
+	 */
+	public RecordWriter(Path path) throws IOException {
+		archive = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		index = FileChannel.open(getIndexPath(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		record = ByteBuffer.allocate(GameRecord.MAX_BYTES);
+		position = ByteBuffer.allocate(Long.BYTES);
+		if (archive.size() == 0) {
+			ByteBuffer magic = ByteBuffer.allocate(Long.BYTES).putLong(RecordReader.MAGIC).flip();
+			while (magic.hasRemaining()) {
+				archive.write(magic);
+			}
+		}
+		size = archive.size();
+	}
+
+	/**
+	 * @param path the path of an archive
+	 * @return the path of its index
+	 */
+	public static Path getIndexPath(Path path) {
+		return Paths.get(path + ".idx");
+	}
+
+	/**
+	 * Appends the record of the given game, see
+	 * {@link GameRecord#encode(Game, ByteBuffer)}.
+	 *
+	 * @param game the game
+	 * @throws IOException if the record cant be written
+	 */
+	public void append(Game game) throws IOException {
+		record.clear();
+		GameRecord.encode(game, record);
+		record.flip();
+		long offset = size;
+		size += record.remaining();
+		while (record.hasRemaining()) {
+			archive.write(record);
+		}
+		position.clear();
+		position.putLong(offset).flip();
+		while (position.hasRemaining()) {
+			index.write(position);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			archive.close();
+		} finally {
+			index.close();
+		}
+	}
+}
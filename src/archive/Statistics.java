@@ -0,0 +1,235 @@
+package archive;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import data.BitBoard;
+import data.CardSet;
+import game.Game;
+import game.NullSink;
+
+/**
+ * Counts the results of recorded games: the wins of each player, the wins of
+ * the players who drew each card, the results of each opening placement and
+ * the lengths of the games. The counts of several threads are combined with
+ * {@link #merge(Statistics)}. An instance must not be shared between threads.
+ *
+ */
+public class Statistics {
+	/**
+	 * the number of turns from which on games are counted together
+	 */
+	public static final int MAX_TURNS = 128;
+	private long games;
+	/**
+	 * the number of games won by the first player, the second player and not
+	 * finished
+	 */
+	private long[] results;
+	/**
+	 * the number of finished games of the players who drew a card and how many of
+	 * them they won, by card
+	 */
+	private long[] cardGames;
+	private long[] cardWins;
+	/**
+	 * the number of games by their number of turns
+	 */
+	private long[] lengths;
+	/**
+	 * the number of games and of wins of each player by opening, see
+	 * {@link #getOpening(GameRecord)}
+	 */
+	private Map<Integer, long[]> openings;
+	/**
+	 * the number of records whose replay does not end with the recorded result
+	 */
+	private long invalid;
+
+	public Statistics() {
+		results = new long[3];
+		cardGames = new long[CardSet.size()];
+		cardWins = new long[CardSet.size()];
+		lengths = new long[MAX_TURNS + 1];
+		openings = new HashMap<Integer, long[]>();
+	}
+
+	/**
+	 * Counts the given game.
+	 *
+	 * @param record the record of the game
+	 * @param replay true to check the record by playing it again
+	 */
+	public void add(GameRecord record, boolean replay) {
+		int winner = record.getWinner();
+		++games;
+		++results[winner < 0 ? 2 : winner];
+		int side = 0;
+		int turns = 1;
+		int drawn0 = 0;
+		int drawn1 = 0;
+		for (int i = 0; i < record.getActionCount(); i++) {
+			int action = record.getAction(i);
+			if (GameRecord.isTurn(action)) {
+				side ^= 1;
+				++turns;
+			} else if (GameRecord.isDraw(action)) {
+				if (side == 0) {
+					drawn0 |= 1 << GameRecord.getCard(action);
+				} else {
+					drawn1 |= 1 << GameRecord.getCard(action);
+				}
+			}
+		}
+		if (winner >= 0) {
+			for (int card = 0; card < CardSet.size(); card++) {
+				if ((drawn0 >> card & 1) != 0) {
+					++cardGames[card];
+					cardWins[card] += winner == 0 ? 1 : 0;
+				}
+				if ((drawn1 >> card & 1) != 0) {
+					++cardGames[card];
+					cardWins[card] += winner == 1 ? 1 : 0;
+				}
+			}
+		}
+		++lengths[Math.min(turns, MAX_TURNS)];
+		long[] opening = openings.computeIfAbsent(getOpening(record), key -> new long[3]);
+		++opening[0];
+		if (winner >= 0) {
+			++opening[1 + winner];
+		}
+		if (replay && !isValid(record)) {
+			++invalid;
+		}
+	}
+
+	/**
+	 * Plays the record again. The rules have to accept every action and the game
+	 * has to end with the recorded result, or still be on if no winner is
+	 * recorded.
+	 */
+	private static boolean isValid(GameRecord record) {
+		Game game = record.replay(NullSink.INSTANCE);
+		if (game.getHistory().length != record.getActionCount()) {
+			return false;
+		}
+		if (game.isGameOn()) {
+			return record.getWinner() < 0;
+		}
+		int winner = game.getActivePlayer() == game.getFirstPlayer() ? 0 : 1;
+		return winner == record.getWinner();
+	}
+
+	/**
+	 * @param record a record
+	 * @return the initial cells of the figures, the cells of each player in
+	 *         ascending order and five bits per cell
+	 */
+	public static int getOpening(GameRecord record) {
+		int opening = 0;
+		for (int player = 0; player < 2; player++) {
+			int first = record.getInitialSquare(2 * player);
+			int second = record.getInitialSquare(2 * player + 1);
+			opening = opening << 10 | Math.min(first, second) << 5 | Math.max(first, second);
+		}
+		return opening;
+	}
+
+	/**
+	 * @param opening an opening, see {@link #getOpening(GameRecord)}
+	 * @return the cells of the opening in the format of {@link Game#main(String[])}
+	 */
+	public static String formatOpening(int opening) {
+		StringBuilder text = new StringBuilder();
+		for (int shift = 15; shift >= 0; shift -= 5) {
+			int square = opening >> shift & 31;
+			text.append(BitBoard.getX(square)).append(';').append(BitBoard.getY(square));
+			text.append(shift == 10 ? " | " : shift > 0 ? " " : "");
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Adds the counts of the given statistics to these.
+	 *
+	 * @param other the statistics
+	 */
+	public void merge(Statistics other) {
+		games += other.games;
+		invalid += other.invalid;
+		for (int i = 0; i < results.length; i++) {
+			results[i] += other.results[i];
+		}
+		for (int card = 0; card < cardGames.length; card++) {
+			cardGames[card] += other.cardGames[card];
+			cardWins[card] += other.cardWins[card];
+		}
+		for (int i = 0; i < lengths.length; i++) {
+			lengths[i] += other.lengths[i];
+		}
+		for (Map.Entry<Integer, long[]> entry : other.openings.entrySet()) {
+			long[] opening = openings.computeIfAbsent(entry.getKey(), key -> new long[3]);
+			for (int i = 0; i < opening.length; i++) {
+				opening[i] += entry.getValue()[i];
+			}
+		}
+	}
+
+	/**
+	 * Measures how strongly drawing the given card goes along with winning, as
+	 * the phi coefficient over the players of all finished games. Each finished
+	 * game has one winner and one loser.
+	 *
+	 * @param card the number of a card
+	 * @return a value from -1 to 1, 0 if there is no relation
+	 */
+	public double getCorrelation(int card) {
+		double finished = results[0] + results[1];
+		double drewWon = cardWins[card];
+		double drewLost = cardGames[card] - cardWins[card];
+		double otherWon = finished - drewWon;
+		double otherLost = finished - drewLost;
+		double denominator = Math.sqrt(cardGames[card] * (2 * finished - cardGames[card]) * finished * finished);
+		return denominator == 0 ? 0 : (drewWon * otherLost - drewLost * otherWon) / denominator;
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @param result 0 or 1 for the wins of a player, 2 for the unfinished games
+	 * @return the number of games
+	 */
+	public long getResults(int result) {
+		return results[result];
+	}
+
+	public long getCardGames(int card) {
+		return cardGames[card];
+	}
+
+	public long getCardWins(int card) {
+		return cardWins[card];
+	}
+
+	/**
+	 * @param turns a number of turns, the last one counts all longer games
+	 * @return the number of games
+	 */
+	public long getLengths(int turns) {
+		return lengths[turns];
+	}
+
+	/**
+	 * @return the number of games and of wins of each player by opening
+	 */
+	public Map<Integer, long[]> getOpenings() {
+		return openings;
+	}
+
+	public long getInvalid() {
+		return invalid;
+	}
+}
@@ -0,0 +1,185 @@
+package data;
+
+/**
+ * The first layer of a neural evaluation network, kept up to date with a
+ * {@link BitBoard}. The inputs are the features of the board: for each cell
+ * whether it has at least one, two or three cuboids, a dome, a figure of the
+ * player and a figure of the opponent. The layer sums the weights of the
+ * present features once from the view of each player, the two sums only differ
+ * in which figures are the own ones. A move or build changes at most two
+ * features, so the board adds and subtracts the weights of those features
+ * instead of summing all of them again. The weights and sums are 16-bit
+ * integers, the network has to be trained so the sums stay in range.
+ *
+ */
+public class Accumulator {
+	/**
+	 * the first feature plane of the cuboids, followed by the second and third
+	 * level
+	 */
+	public static final int LEVEL = 0;
+	public static final int DOME = 3;
+	/**
+	 * the feature plane of the figures of the first player, followed by the plane
+	 * of the second player
+	 */
+	public static final int WORKER = 4;
+	public static final int PLANES = 6;
+	/**
+	 * the number of inputs, a plane of one feature per cell for each kind of
+	 * element
+	 */
+	public static final int FEATURES = PLANES * BitBoard.CELLS;
+	/**
+	 * contains the weights of each feature, {@link #getSize()} values each
+	 */
+	private final short[] weights;
+	private final short[] biases;
+	private final int size;
+	/**
+	 * contains the sums from the view of the first player, followed by the sums
+	 * from the view of the second player
+	 */
+	private final short[] values;
+
+	/**
+	 * @param weights the weights of each feature, as many per feature as there
+	 *                are biases
+	 * @param biases  the bias of each output
+	 */
+	public Accumulator(short[] weights, short[] biases) {
+		if (weights.length != FEATURES * biases.length) {
+			throw new IllegalArgumentException("the number of weights doesnt match the number of biases");
+		}
+		this.weights = weights;
+		this.biases = biases;
+		size = biases.length;
+		values = new short[2 * size];
+	}
+
+	/**
+	 * Copies the sums of the given accumulator, which has to share the weights of
+	 * this one.
+	 *
+	 * @param other the accumulator to copy
+	 */
+	public void copyFrom(Accumulator other) {
+		System.arraycopy(other.values, 0, values, 0, values.length);
+	}
+
+	/**
+	 * @param other an accumulator
+	 * @return true if both accumulators have the same weights, so their sums can
+	 *         be copied
+	 */
+	public boolean sharesWeights(Accumulator other) {
+		return weights == other.weights && biases == other.biases;
+	}
+
+	/**
+	 * Checks whether the given weights are the same for every cell and its images
+	 * under the {@link Symmetry symmetries} of the board, so that rotations and
+	 * reflections of a board get the same sums.
+	 *
+	 * @param weights the weights of each feature
+	 * @param size    the number of weights of each feature
+	 * @return true if the weights are symmetric
+	 */
+	public static boolean isSymmetric(short[] weights, int size) {
+		for (int plane = 0; plane < PLANES; plane++) {
+			for (int square = 0; square < BitBoard.CELLS; square++) {
+				int row = (plane * BitBoard.CELLS + square) * size;
+				for (int symmetry = 1; symmetry < Symmetry.COUNT; symmetry++) {
+					int image = (plane * BitBoard.CELLS + Symmetry.square(symmetry, square)) * size;
+					for (int i = 0; i < size; i++) {
+						if (weights[row + i] != weights[image + i]) {
+							return false;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sums the weights of all features of the given board.
+	 *
+	 * @param board the board
+	 */
+	public void refresh(BitBoard board) {
+		System.arraycopy(biases, 0, values, 0, size);
+		System.arraycopy(biases, 0, values, size, size);
+		for (int level = 1; level <= 3; level++) {
+			addAll(LEVEL + level - 1, board.getLevelMask(level));
+		}
+		addAll(DOME, board.getDomes());
+		addAll(WORKER, board.getWorkers(0));
+		addAll(WORKER + 1, board.getWorkers(1));
+	}
+
+	private void addAll(int plane, int cells) {
+		for (int rest = cells; rest != 0; rest &= rest - 1) {
+			add(plane, Integer.numberOfTrailingZeros(rest));
+		}
+	}
+
+	/**
+	 * @param view  0 for the view of the first player, 1 for the second player
+	 * @param plane the plane of the feature from the view of the first player
+	 * @return the offset of the weights of the feature
+	 */
+	private int getRow(int view, int plane, int square) {
+		if (plane >= WORKER) {
+			plane ^= view;
+		}
+		return (plane * BitBoard.CELLS + square) * size;
+	}
+
+	/**
+	 * Adds the weights of a feature that has appeared on the board.
+	 *
+	 * @param plane  the plane of the feature
+	 * @param square the cell
+	 */
+	public void add(int plane, int square) {
+		int first = getRow(0, plane, square);
+		int second = getRow(1, plane, square);
+		for (int i = 0; i < size; i++) {
+			values[i] += weights[first + i];
+			values[size + i] += weights[second + i];
+		}
+	}
+
+	/**
+	 * Subtracts the weights of a feature that has left the board.
+	 *
+	 * @param plane  the plane of the feature
+	 * @param square the cell
+	 */
+	public void remove(int plane, int square) {
+		int first = getRow(0, plane, square);
+		int second = getRow(1, plane, square);
+		for (int i = 0; i < size; i++) {
+			values[i] -= weights[first + i];
+			values[size + i] -= weights[second + i];
+		}
+	}
+
+	/**
+	 * @return the number of sums of each view
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @param view  0 for the view of the first player, 1 for the second player
+	 * @param index the number of the sum
+	 * @return the sum
+	 */
+	public short getValue(int view, int index) {
+		return values[view * size + index];
+	}
+
+}
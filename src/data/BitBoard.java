@@ -0,0 +1,640 @@
+package data;
+
+import java.util.Arrays;
+
+import elements.Cuboid;
+import elements.Dome;
+import elements.Figure;
+
+/**
+ * Represents the board of the game as a set of bit masks. Each cell of the 5x5
+ * board corresponds to one bit of an int, the cell (x, y) to the bit x * 5 + y.
+ * The figures are numbered from 0 to 3, the first two belong to the first
+ * player and the last two to the second player.
+ *
+ */
+public class BitBoard {
+	/**
+	 * the number of rows and columns of the board
+	 */
+	public static final int SIZE = 5;
+	/**
+	 * the number of cells of the board
+	 */
+	public static final int CELLS = SIZE * SIZE;
+	/**
+	 * a mask containing every cell of the board
+	 */
+	public static final int FULL = (1 << CELLS) - 1;
+	/**
+	 * the number of cuboids and domes a new board starts with
+	 */
+	public static final int CUBOIDS = 54;
+	public static final int DOMES = 18;
+	/**
+	 * contains for each cell the mask of its surrounding cells
+	 */
+	private static final int[] NEIGHBORS = new int[CELLS];
+	/**
+	 * contains the {@link Zobrist} numbers of each element on each cell for each
+	 * {@link Symmetry}, so the keys of all symmetries are updated in one loop
+	 */
+	private static final long[][][] CUBOID_KEYS = new long[4][CELLS][Symmetry.COUNT];
+	private static final long[][] DOME_KEYS = new long[CELLS][Symmetry.COUNT];
+	private static final long[][][] WORKER_KEYS = new long[4][CELLS][Symmetry.COUNT];
+
+	static {
+		for (int square = 0; square < CELLS; square++) {
+			int x = getX(square);
+			int y = getY(square);
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+					if ((dx != 0 || dy != 0) && isWithinBounds(x + dx, y + dy)) {
+						NEIGHBORS[square] |= 1 << square(x + dx, y + dy);
+					}
+				}
+			}
+			for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+				int image = Symmetry.square(symmetry, square);
+				for (int i = 0; i < 4; i++) {
+					CUBOID_KEYS[i][square][symmetry] = i == 0 ? 0 : Zobrist.cuboid(i, image);
+					WORKER_KEYS[i][square][symmetry] = Zobrist.worker(i, image);
+				}
+				DOME_KEYS[square][symmetry] = Zobrist.dome(image);
+			}
+		}
+	}
+
+	/**
+	 * contains the cells with at least one, two and three cuboids
+	 */
+	private int level1;
+	private int level2;
+	private int level3;
+	/**
+	 * contains the cells with a dome
+	 */
+	private int domes;
+	/**
+	 * contains for each player the cells occupied by his figures
+	 */
+	private int[] workerMasks;
+	/**
+	 * contains the cell of each of the four figures
+	 */
+	private int[] workers;
+	/**
+	 * contains for each {@link Symmetry} the hash key of the board transformed by
+	 * it, see {@link Zobrist}
+	 */
+	private long[] keys;
+	/**
+	 * contains for each figure the mask of the neighbor cells it could move to
+	 * without a card, see {@link #getReachable(int)}
+	 */
+	private int[] reachable;
+	/**
+	 * a mask of the cells which have changed since the reachable cells have been
+	 * updated
+	 */
+	private int changed;
+	/**
+	 * the first layer of a neural network that is updated on every change, or
+	 * null
+	 */
+	private Accumulator accumulator;
+
+	public BitBoard() {
+		workerMasks = new int[2];
+		workers = new int[4];
+		keys = new long[Symmetry.COUNT];
+		reachable = new int[4];
+	}
+
+	/**
+	 * Creates the bit representation of the given board and the figures of the
+	 * two players.
+	 *
+	 * @param board  the board to convert
+	 * @param first  the first player
+	 * @param second the second player
+	 */
+	public BitBoard(Board board, Player first, Player second) {
+		this();
+		Cell[][] cells = board.getCells();
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				Cell cell = cells[x][y];
+				int height = cell.getCellLevel();
+				if (cell.isOccupied()) {
+					--height;
+				} else if (cell.isBlocked()) {
+					--height;
+					addDome(square(x, y));
+				}
+				for (int i = 0; i < height; i++) {
+					addCuboid(square(x, y));
+				}
+			}
+		}
+		Figure[] figures = first.getFigures();
+		placeWorker(0, square(figures[0].getX(), figures[0].getY()));
+		placeWorker(1, square(figures[1].getX(), figures[1].getY()));
+		figures = second.getFigures();
+		placeWorker(2, square(figures[0].getX(), figures[0].getY()));
+		placeWorker(3, square(figures[1].getX(), figures[1].getY()));
+		changed = FULL;
+	}
+
+	/**
+	 * Creates a new board with the cuboids and domes of this bit board and places
+	 * the figures of the given players on it. The coordinates and levels of the
+	 * figures are updated accordingly.
+	 *
+	 * @param first  the first player
+	 * @param second the second player
+	 * @return the new board
+	 */
+	public Board toBoard(Player first, Player second) {
+		Board board = new Board();
+		for (int square = 0; square < CELLS; square++) {
+			int x = getX(square);
+			int y = getY(square);
+			for (int i = 0; i < getHeight(square); i++) {
+				board.addElement(new Cuboid(x, y), x, y);
+			}
+			if (isDome(square)) {
+				board.addElementAtlas(new Dome(x, y), x, y);
+			}
+		}
+		for (int i = 0; i < workers.length; i++) {
+			Player player = i < 2 ? first : second;
+			Figure figure = player.getFigures()[i % 2];
+			figure.move(getX(workers[i]), getY(workers[i]));
+			figure.setLevel(getHeight(workers[i]));
+			board.addElement(figure, figure.getX(), figure.getY());
+		}
+		return board;
+	}
+
+	/**
+	 * Copies the content of the given bit board into this one.
+	 *
+	 * @param other the bit board to copy
+	 */
+	public void copyFrom(BitBoard other) {
+		level1 = other.level1;
+		level2 = other.level2;
+		level3 = other.level3;
+		domes = other.domes;
+		workerMasks[0] = other.workerMasks[0];
+		workerMasks[1] = other.workerMasks[1];
+		System.arraycopy(other.workers, 0, workers, 0, workers.length);
+		System.arraycopy(other.keys, 0, keys, 0, keys.length);
+		System.arraycopy(other.reachable, 0, reachable, 0, reachable.length);
+		changed = other.changed;
+		if (accumulator != null) {
+			if (other.accumulator != null && accumulator.sharesWeights(other.accumulator)) {
+				accumulator.copyFrom(other.accumulator);
+			} else {
+				accumulator.refresh(this);
+			}
+		}
+	}
+
+	/**
+	 * Copies the content of the given bit board transformed by the given symmetry
+	 * into this one.
+	 *
+	 * @param other    the bit board to copy
+	 * @param symmetry the number of the {@link Symmetry}
+	 */
+	public void copyFrom(BitBoard other, int symmetry) {
+		level1 = Symmetry.mask(symmetry, other.level1);
+		level2 = Symmetry.mask(symmetry, other.level2);
+		level3 = Symmetry.mask(symmetry, other.level3);
+		domes = Symmetry.mask(symmetry, other.domes);
+		workerMasks[0] = Symmetry.mask(symmetry, other.workerMasks[0]);
+		workerMasks[1] = Symmetry.mask(symmetry, other.workerMasks[1]);
+		for (int worker = 0; worker < workers.length; worker++) {
+			workers[worker] = Symmetry.square(symmetry, other.workers[worker]);
+			reachable[worker] = Symmetry.mask(symmetry, other.reachable[worker]);
+		}
+		changed = Symmetry.mask(symmetry, other.changed);
+		for (int next = 0; next < keys.length; next++) {
+			keys[next] = other.keys[Symmetry.compose(symmetry, next)];
+		}
+		if (accumulator != null) {
+			accumulator.refresh(this);
+		}
+	}
+
+	/**
+	 * Sets the content of the board and recomputes its hash key.
+	 * 
+	 * @param level1  the cells with at least one cuboid
+	 * @param level2  the cells with at least two cuboids
+	 * @param level3  the cells with three cuboids
+	 * @param domes   the cells with a dome
+	 * @param workers the cells of the four figures, 5 bits each
+	 */
+	public void set(int level1, int level2, int level3, int domes, int workers) {
+		this.level1 = 0;
+		this.level2 = 0;
+		this.level3 = 0;
+		this.domes = 0;
+		workerMasks[0] = 0;
+		workerMasks[1] = 0;
+		Arrays.fill(keys, 0);
+		for (int rest = level1; rest != 0; rest &= rest - 1) {
+			int square = Integer.numberOfTrailingZeros(rest);
+			addCuboid(square);
+			if ((level2 >>> square & 1) != 0) {
+				addCuboid(square);
+			}
+			if ((level3 >>> square & 1) != 0) {
+				addCuboid(square);
+			}
+		}
+		for (int rest = domes; rest != 0; rest &= rest - 1) {
+			addDome(Integer.numberOfTrailingZeros(rest));
+		}
+		for (int worker = 0; worker < this.workers.length; worker++) {
+			placeWorker(worker, workers >>> (5 * worker) & 31);
+		}
+		changed = FULL;
+		if (accumulator != null) {
+			accumulator.refresh(this);
+		}
+	}
+
+	/**
+	 * @param x
+	 * @param y
+	 * @return the index of the bit corresponding to the given coordinates
+	 */
+	public static int square(int x, int y) {
+		return x * SIZE + y;
+	}
+
+	public static int getX(int square) {
+		return square / SIZE;
+	}
+
+	public static int getY(int square) {
+		return square % SIZE;
+	}
+
+	/**
+	 * @param x
+	 * @param y
+	 * @return true if the coordinates are within the bounds of the board
+	 */
+	public static boolean isWithinBounds(int x, int y) {
+		return x >= 0 && y >= 0 && x < SIZE && y < SIZE;
+	}
+
+	/**
+	 * Returns the mask of the cells around the given cell.
+	 *
+	 * @param square the index of the cell
+	 * @return a mask of the surrounding cells
+	 */
+	public static int getNeighbors(int square) {
+		return NEIGHBORS[square];
+	}
+
+	/**
+	 * Returns the mask of the cells around the cell corresponding to the given
+	 * coordinates. Behaves like {@link Board#getNeighbors(int, int)}.
+	 *
+	 * @param x
+	 * @param y
+	 * @return a mask of the surrounding cells
+	 */
+	public static int getNeighbors(int x, int y) {
+		return isWithinBounds(x, y) ? NEIGHBORS[square(x, y)] : 0;
+	}
+
+	/**
+	 * Returns the mask of the unblocked cells around the cell corresponding to the
+	 * given coordinates. Behaves like {@link Board#getUnblockedNeighbors(int, int)}.
+	 *
+	 * @param x
+	 * @param y
+	 * @return a mask of the surrounding cells without a figure or a dome
+	 */
+	public int getUnblockedNeighbors(int x, int y) {
+		return getNeighbors(x, y) & ~getBlocked();
+	}
+
+	/**
+	 * @return a mask of the cells which contain a figure or a dome
+	 */
+	public int getBlocked() {
+		return domes | workerMasks[0] | workerMasks[1];
+	}
+
+	/**
+	 * @return a mask of the cells which contain a figure
+	 */
+	public int getOccupied() {
+		return workerMasks[0] | workerMasks[1];
+	}
+
+	/**
+	 * Returns the mask of the cells with at least the given number of cuboids.
+	 *
+	 * @param height the number of cuboids
+	 * @return a mask of cells
+	 */
+	public int getLevelMask(int height) {
+		switch (height) {
+		case 1:
+			return level1;
+		case 2:
+			return level2;
+		case 3:
+			return level3;
+		default:
+			return height <= 0 ? FULL : 0;
+		}
+	}
+
+	/**
+	 * Returns the mask of the cells whose cell level, as returned by
+	 * {@link #getCellLevel(int)}, is at most the given level.
+	 *
+	 * @param level the highest cell level
+	 * @return a mask of cells
+	 */
+	public int getCellLevelAtMost(int level) {
+		int blocked = getBlocked();
+		return (~blocked & ~getLevelMask(level + 1) | blocked & ~getLevelMask(level)) & FULL;
+	}
+
+	/**
+	 * Returns the mask of the cells a figure of the given level may be moved to
+	 * based on their level. Behaves like
+	 * {@link Board#canMoveFigureBasedOnLevel(Figure, int, int)} for every cell.
+	 *
+	 * @param level the level of the figure
+	 * @return a mask of cells
+	 */
+	public int getReachableByLevel(int level) {
+		return getCellLevelAtMost(level + 1);
+	}
+
+	/**
+	 * Checks whether a figure of the given level can be placed on the cell
+	 * corresponding to the given coordinates based on the level of the cell.
+	 *
+	 * @param level the level of the figure
+	 * @param x     the x-coordinate of the cell
+	 * @param y     the y-coordinate of the cell
+	 * @return true if the destination cell isnt over one level higher than the
+	 *         figure
+	 */
+	public boolean canMoveFigureBasedOnLevel(int level, int x, int y) {
+		return getCellLevel(square(x, y)) <= level + 1;
+	}
+
+	/**
+	 * @param square the index of the cell
+	 * @return the number of cuboids on the cell
+	 */
+	public int getHeight(int square) {
+		return (level1 >>> square & 1) + (level2 >>> square & 1) + (level3 >>> square & 1);
+	}
+
+	/**
+	 * Returns the cell level of the corresponding cell. Like
+	 * {@link Cell#getCellLevel()} it counts the cuboids, the dome and the figure
+	 * on the cell.
+	 *
+	 * @param square the index of the cell
+	 * @return the cell level
+	 */
+	public int getCellLevel(int square) {
+		return getHeight(square) + (getBlocked() >>> square & 1);
+	}
+
+	public int getCellLevel(int x, int y) {
+		return getCellLevel(square(x, y));
+	}
+
+	public boolean isDome(int square) {
+		return (domes >>> square & 1) != 0;
+	}
+
+	public boolean isOccupied(int square) {
+		return (getOccupied() >>> square & 1) != 0;
+	}
+
+	public boolean isBlocked(int square) {
+		return (getBlocked() >>> square & 1) != 0;
+	}
+
+	/**
+	 * Places a cuboid on the given cell.
+	 *
+	 * @param square the index of the cell
+	 */
+	public void addCuboid(int square) {
+		int bit = 1 << square;
+		int level;
+		if ((level2 & bit) != 0) {
+			level3 |= bit;
+			level = 3;
+		} else if ((level1 & bit) != 0) {
+			level2 |= bit;
+			level = 2;
+		} else {
+			level1 |= bit;
+			level = 1;
+		}
+		hash(CUBOID_KEYS[level][square]);
+		changed |= bit;
+		if (accumulator != null) {
+			accumulator.add(Accumulator.LEVEL + level - 1, square);
+		}
+	}
+
+	/**
+	 * Toggles an element in the keys of all symmetries.
+	 *
+	 * @param numbers the numbers of the element for each symmetry
+	 */
+	private void hash(long[] numbers) {
+		for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+			keys[symmetry] ^= numbers[symmetry];
+		}
+	}
+
+	/**
+	 * Places a dome on the given cell.
+	 *
+	 * @param square the index of the cell
+	 */
+	public void addDome(int square) {
+		domes |= 1 << square;
+		hash(DOME_KEYS[square]);
+		changed |= 1 << square;
+		if (accumulator != null) {
+			accumulator.add(Accumulator.DOME, square);
+		}
+	}
+
+	/**
+	 * Places the given figure on a cell without removing it from a previous one.
+	 *
+	 * @param worker the number of the figure
+	 * @param square the index of the cell
+	 */
+	private void placeWorker(int worker, int square) {
+		workers[worker] = square;
+		workerMasks[worker >> 1] |= 1 << square;
+		hash(WORKER_KEYS[worker][square]);
+	}
+
+	/**
+	 * Moves the given figure to another cell. To swap two figures both of them
+	 * have to be moved.
+	 *
+	 * @param worker the number of the figure
+	 * @param square the index of the destination cell
+	 */
+	public void moveWorker(int worker, int square) {
+		changed |= 1 << workers[worker] | 1 << square;
+		if (accumulator != null) {
+			accumulator.remove(Accumulator.WORKER + (worker >> 1), workers[worker]);
+			accumulator.add(Accumulator.WORKER + (worker >> 1), square);
+		}
+		workerMasks[worker >> 1] &= ~(1 << workers[worker]);
+		hash(WORKER_KEYS[worker][workers[worker]]);
+		placeWorker(worker, square);
+	}
+
+	/**
+	 * Recomputes the reachable cells of the figures which stand on or next to a
+	 * changed cell.
+	 */
+	private void updateReachable() {
+		int blocked = getBlocked();
+		for (int worker = 0; worker < workers.length; worker++) {
+			int square = workers[worker];
+			if (((NEIGHBORS[square] | 1 << square) & changed) != 0) {
+				reachable[worker] = NEIGHBORS[square] & ~blocked & ~getLevelMask(getHeight(square) + 2);
+			}
+		}
+		changed = 0;
+	}
+
+	/**
+	 * Returns the cells the given figure could move to without a card, ignoring
+	 * whether the player may move up. Every move and build only marks the changed
+	 * cells, which are copied with the board. The masks of the figures next to
+	 * them are recomputed when they are needed, so positions that are never
+	 * evaluated pay for no more than the marks.
+	 *
+	 * @param worker the number of the figure
+	 * @return a mask of the neighbor cells which are free and at most one level
+	 *         higher than the figure
+	 */
+	public int getReachable(int worker) {
+		if (changed != 0) {
+			updateReachable();
+		}
+		return reachable[worker];
+	}
+
+	/**
+	 * @param worker the number of the figure
+	 * @return the index of the cell the figure stands on
+	 */
+	public int getWorker(int worker) {
+		return workers[worker];
+	}
+
+	/**
+	 * @param worker the number of the figure
+	 * @return the level of the figure which equals the number of cuboids below it
+	 */
+	public int getWorkerLevel(int worker) {
+		return getHeight(workers[worker]);
+	}
+
+	/**
+	 * @param player 0 for the first and 1 for the second player
+	 * @return a mask of the cells occupied by the figures of the player
+	 */
+	public int getWorkers(int player) {
+		return workerMasks[player];
+	}
+
+	/**
+	 * @return the hash key of the cuboids, domes and figures on the board
+	 */
+	public long getKey() {
+		return keys[Symmetry.IDENTITY];
+	}
+
+	/**
+	 * @param symmetry the number of the {@link Symmetry}
+	 * @return the hash key of the board transformed by the given symmetry
+	 */
+	public long getKey(int symmetry) {
+		return keys[symmetry];
+	}
+
+	/**
+	 * Finds the symmetry whose transformed board has the smallest hash key. All
+	 * boards that are rotations or reflections of each other are transformed to
+	 * the same board by their canonical symmetry.
+	 *
+	 * @return the number of the canonical {@link Symmetry}
+	 */
+	public int getCanonicalSymmetry() {
+		int best = Symmetry.IDENTITY;
+		for (int symmetry = 1; symmetry < Symmetry.COUNT; symmetry++) {
+			if (keys[symmetry] < keys[best]) {
+				best = symmetry;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Attaches the first layer of a neural network, which is summed up for the
+	 * current content and then updated by every change of the board and kept
+	 * by copies whose accumulator shares its weights.
+	 *
+	 * @param accumulator the accumulator or null to detach it
+	 */
+	public void setAccumulator(Accumulator accumulator) {
+		this.accumulator = accumulator;
+		if (accumulator != null) {
+			accumulator.refresh(this);
+		}
+	}
+
+	/**
+	 * @return the attached accumulator or null
+	 */
+	public Accumulator getAccumulator() {
+		return accumulator;
+	}
+
+	public int getDomes() {
+		return domes;
+	}
+
+	public int getAvailableCuboids() {
+		return CUBOIDS - Integer.bitCount(level1) - Integer.bitCount(level2) - Integer.bitCount(level3);
+	}
+
+	public int getAvailableDomes() {
+		return DOMES - Integer.bitCount(domes);
+	}
+
+}
@@ -24,9 +24,40 @@ public class Board {
 	 * indicates the number of available cuboids for the current game
 	 */
 	private int availableCuboids;
+	/**
+	 * contains the figures in the order they were placed on the board, the index
+	 * of a figure is its number in the hash key
+	 */
+	private Figure[] figures;
+	/**
+	 * the hash key of the board, see {@link Zobrist}
+	 */
+	private long key;
+	/**
+	 * contains the cell of each figure, numbered like {@link #figures}, as in
+	 * {@link BitBoard#square(int, int)}
+	 */
+	private int[] squares;
+	/**
+	 * contains for each figure the number of unblocked surrounding cells which
+	 * are not higher than its level and the number of those which are one level
+	 * higher
+	 */
+	private int[] lowerDestinations;
+	private int[] higherDestinations;
+	/**
+	 * contains for each number of cuboids the number of unblocked cells
+	 */
+	private int[] freeCells;
 
 	public Board() {
 		cells = new Cell[5][5];
+		figures = new Figure[4];
+		squares = new int[4];
+		lowerDestinations = new int[4];
+		higherDestinations = new int[4];
+		freeCells = new int[4];
+		freeCells[0] = BitBoard.CELLS;
 		availableCuboids = 54;
 		availableDomes = 18;
 		initializeCells();
@@ -58,12 +89,135 @@ public class Board {
 		if (element instanceof Dome) {
 			decreaseDomes();
 		}
-		cells[x][y].addElement(element);
+		int square = BitBoard.square(x, y);
+		countDestinations(square, -1);
+		if (cells[x][y].addElement(element)) {
+			if (element instanceof Cuboid) {
+				key ^= Zobrist.cuboid(cells[x][y].getCellLevel(), square);
+			} else if (element instanceof Dome) {
+				key ^= Zobrist.dome(square);
+			} else if (element instanceof Figure) {
+				int number = getFigureNumber((Figure) element);
+				key ^= Zobrist.worker(number, square);
+				squares[number] = square;
+				countDestinations(number);
+			}
+		}
+		countDestinations(square, 1);
 	}
 
 	public void addElementAtlas(Dome dome, int x, int y) {
 		decreaseDomes();
+		int square = BitBoard.square(x, y);
+		countDestinations(square, -1);
 		cells[x][y].addElementAtlas(dome);
+		countDestinations(square, 1);
+		key ^= Zobrist.dome(square);
+	}
+
+	/**
+	 * Adds the given cell to or removes it from the free cells and the
+	 * destinations of the surrounding figures. Has to be called with -1 before and
+	 * with 1 after the cell has been changed.
+	 * 
+	 * @param square the cell as in {@link BitBoard#square(int, int)}
+	 * @param delta  -1 to remove or 1 to add the cell
+	 */
+	private void countDestinations(int square, int delta) {
+		Cell cell = getCell(square);
+		if (cell.isBlocked()) {
+			return;
+		}
+		int height = cell.getHeight();
+		freeCells[height] += delta;
+		for (int number = 0; number < figures.length && figures[number] != null; number++) {
+			if ((BitBoard.getNeighbors(squares[number]) >>> square & 1) != 0) {
+				int level = getCell(squares[number]).getHeight();
+				if (height <= level) {
+					lowerDestinations[number] += delta;
+				} else if (height == level + 1) {
+					higherDestinations[number] += delta;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the destinations of the given figure from scratch, after it has been
+	 * moved.
+	 * 
+	 * @param number the number of the figure
+	 */
+	private void countDestinations(int number) {
+		int level = getCell(squares[number]).getHeight();
+		lowerDestinations[number] = 0;
+		higherDestinations[number] = 0;
+		for (int rest = BitBoard.getNeighbors(squares[number]); rest != 0; rest &= rest - 1) {
+			Cell cell = getCell(Integer.numberOfTrailingZeros(rest));
+			if (!cell.isBlocked() && cell.getHeight() <= level) {
+				++lowerDestinations[number];
+			} else if (!cell.isBlocked() && cell.getHeight() == level + 1) {
+				++higherDestinations[number];
+			}
+		}
+	}
+
+	/**
+	 * Removes the top element of the cell corresponding to the given coordinates,
+	 * which has to be a cuboid or a dome, and puts it back into the bag. Takes
+	 * back {@link #addElement(Element, int, int)} and
+	 * {@link #addElementAtlas(Dome, int, int)}.
+	 * 
+	 * @param x
+	 * @param y
+	 */
+	public void removeTopElement(int x, int y) {
+		int square = BitBoard.square(x, y);
+		Element top = cells[x][y].getTopElement();
+		countDestinations(square, -1);
+		if (top instanceof Dome) {
+			key ^= Zobrist.dome(square);
+			++availableDomes;
+		} else {
+			key ^= Zobrist.cuboid(cells[x][y].getHeight(), square);
+			++availableCuboids;
+		}
+		cells[x][y].removeElement(top);
+		countDestinations(square, 1);
+	}
+
+	/**
+	 * Returns the number of the given figure in the hash key. A figure gets the
+	 * next free number when it is placed on the board for the first time.
+	 * 
+	 * @param figure a figure
+	 * @return the number of the figure
+	 */
+	private int getFigureNumber(Figure figure) {
+		for (int i = 0; i < figures.length; i++) {
+			if (figures[i] == null) {
+				figures[i] = figure;
+			}
+			if (figures[i] == figure) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Updates the hash key for a figure that moves between two cells.
+	 * 
+	 * @param figure the figure
+	 * @param fromX  initial x-coordinate
+	 * @param fromY  initial y-coordinate
+	 * @param toX    destination x-coordinate
+	 * @param toY    destination y-coordinate
+	 */
+	private void updateKey(Figure figure, int fromX, int fromY, int toX, int toY) {
+		int number = getFigureNumber(figure);
+		key ^= Zobrist.worker(number, BitBoard.square(fromX, fromY))
+				^ Zobrist.worker(number, BitBoard.square(toX, toY));
 	}
 
 	/**
@@ -92,8 +246,7 @@ public class Board {
 	 */
 	public boolean moveFigure(Figure figure, int x, int y) {
 		if (canMoveFigureBasedOnLevel(figure, x, y)) {
-			cells[figure.getX()][figure.getY()].removeElement(figure);
-			cells[x][y].addElement(figure);
+			relocateFigure(figure, x, y);
 			return true;
 		} else {
 			return false;
@@ -118,12 +271,51 @@ public class Board {
 		cells[figure.getX()][figure.getY()].removeElement(figure);
 		Figure opponentFigure = cells[x][y].addElementApollo(figure);
 		cells[initialX][initialY].addElement(opponentFigure);
+		updateKey(figure, initialX, initialY, x, y);
+		updateKey(opponentFigure, x, y, initialX, initialY);
+		int number = getFigureNumber(figure);
+		int opponentNumber = getFigureNumber(opponentFigure);
+		squares[number] = BitBoard.square(x, y);
+		squares[opponentNumber] = BitBoard.square(initialX, initialY);
+		countDestinations(number);
+		countDestinations(opponentNumber);
 		return opponentFigure;
 	}
 
+	/**
+	 * Moves the given figure to the cell corresponding to the given coordinates
+	 * without checking the level of the cell, which the hermes card allows.
+	 * 
+	 * @param figure figure to move
+	 * @param x      destination x-coordinate
+	 * @param y      destination y-coordinate
+	 */
 	public void moveFigureHermes(Figure figure, int x, int y) {
+		relocateFigure(figure, x, y);
+	}
+
+	/**
+	 * Removes the figure from its cell, adds it to the cell corresponding to the
+	 * given coordinates and updates the hash key, the destinations and the free
+	 * cells. Doesnt check anything, so it can also take back a move.
+	 * 
+	 * @param figure figure to move
+	 * @param x      destination x-coordinate
+	 * @param y      destination y-coordinate
+	 */
+	public void relocateFigure(Figure figure, int x, int y) {
+		int number = getFigureNumber(figure);
+		int from = squares[number];
+		int to = BitBoard.square(x, y);
+		updateKey(figure, figure.getX(), figure.getY(), x, y);
+		countDestinations(from, -1);
+		countDestinations(to, -1);
 		cells[figure.getX()][figure.getY()].removeElement(figure);
 		cells[x][y].addElement(figure);
+		squares[number] = to;
+		countDestinations(from, 1);
+		countDestinations(to, 1);
+		countDestinations(number);
 	}
 
 	/**
@@ -165,6 +357,83 @@ public class Board {
 		return sb.toString();
 	}
 
+	/**
+	 * Returns the mask of the cells around the cell corresponding to the given
+	 * coordinates, using the precomputed masks of {@link BitBoard}. Unlike
+	 * {@link #getNeighbors(int, int)} it doesnt allocate anything. The cell (x, y)
+	 * corresponds to the bit {@link BitBoard#square(int, int)}.
+	 * 
+	 * @param x
+	 * @param y
+	 * @return a mask of the surrounding cells, 0 if the coordinates are out of
+	 *         bounds
+	 */
+	public int getNeighborMask(int x, int y) {
+		return BitBoard.getNeighbors(x, y);
+	}
+
+	/**
+	 * Returns the mask of the unblocked cells around the cell corresponding to the
+	 * given coordinates. Unlike {@link #getUnblockedNeighbors(int, int)} it doesnt
+	 * allocate anything.
+	 * 
+	 * @param x
+	 * @param y
+	 * @return a mask of the surrounding cells without a figure or a dome
+	 */
+	public int getUnblockedNeighborMask(int x, int y) {
+		int unblocked = 0;
+		for (int rest = getNeighborMask(x, y); rest != 0; rest &= rest - 1) {
+			int square = Integer.numberOfTrailingZeros(rest);
+			if (!getCell(square).isBlocked()) {
+				unblocked |= 1 << square;
+			}
+		}
+		return unblocked;
+	}
+
+	/**
+	 * @param fromX
+	 * @param fromY
+	 * @param toX
+	 * @param toY
+	 * @return true if the cell (toX, toY) surrounds the cell (fromX, fromY)
+	 */
+	public boolean isNeighbor(int fromX, int fromY, int toX, int toY) {
+		return BitBoard.isWithinBounds(toX, toY)
+				&& (getNeighborMask(fromX, fromY) >>> BitBoard.square(toX, toY) & 1) != 0;
+	}
+
+	/**
+	 * Returns the number of cells the given figure can be moved to by a regular
+	 * move. These are the unblocked surrounding cells which are at most one level
+	 * higher than the figure, or not higher if it cant move up.
+	 * 
+	 * @param figure    a figure on the board
+	 * @param canMoveUp false if the figure cant move to a higher level
+	 * @return the number of destination cells
+	 */
+	public int getDestinations(Figure figure, boolean canMoveUp) {
+		int number = getFigureNumber(figure);
+		return canMoveUp ? lowerDestinations[number] + higherDestinations[number] : lowerDestinations[number];
+	}
+
+	/**
+	 * @return the number of cells without a figure or a dome
+	 */
+	public int getFreeCells() {
+		return freeCells[0] + freeCells[1] + freeCells[2] + freeCells[3];
+	}
+
+	/**
+	 * @param height the number of cuboids
+	 * @return the number of cells with the given number of cuboids and without a
+	 *         figure or a dome
+	 */
+	public int getFreeCells(int height) {
+		return freeCells[height];
+	}
+
 	/**
 	 * Creates an ArrayList of cells containing or unblocked cell around the cell
 	 * corresponding to the given coordinates. An unblocked cell is one which doesnt
@@ -254,10 +523,25 @@ public class Board {
 		return "C;" + this.availableCuboids + "D;" + this.availableDomes;
 	}
 
+	/**
+	 * @return the hash key of the elements on the board
+	 */
+	public long getKey() {
+		return key;
+	}
+
 	public Cell[][] getCells() {
 		return cells;
 	}
 
+	/**
+	 * @param square the index of the cell as in {@link BitBoard#square(int, int)}
+	 * @return the cell
+	 */
+	public Cell getCell(int square) {
+		return cells[BitBoard.getX(square)][BitBoard.getY(square)];
+	}
+
 	/**
 	 * Returns the cell level of the corresponding cell.
 	 * 
@@ -5,10 +5,20 @@ package data;
  *
  */
 public class CardSet {
+	public static final int APOLLO = 0;
+	public static final int ARTEMIS = 1;
+	public static final int ATHENA = 2;
+	public static final int ATLAS = 3;
+	public static final int DEMETER = 4;
+	public static final int HERMES = 5;
+	/**
+	 * Contains the symbols of all cards, the index of a symbol is its card number
+	 */
+	private static final String[] ALL_SYMBOLS = { "Apollo", "Artemis", "Athena", "Atlas", "Demeter", "Hermes" };
 	/**
 	 * Contains the card symbols
 	 */
-	private String[] symbols = { "Apollo", "Artemis", "Athena", "Atlas", "Demeter", "Hermes" };
+	private String[] symbols = ALL_SYMBOLS.clone();
 
 	/**
 	 * Checks if the given cardname exists
@@ -43,4 +53,44 @@ public class CardSet {
 		}
 	}
 
+	/**
+	 * Puts a removed card back into the card set.
+	 * 
+	 * @param card the card number
+	 */
+	public void add(int card) {
+		symbols[card] = ALL_SYMBOLS[card];
+	}
+
+	/**
+	 * Returns a mask of the cards which are still in the set. The bit of a card
+	 * corresponds to its card number.
+	 * 
+	 * @return a mask of the remaining cards
+	 */
+	public int getRemaining() {
+		int remaining = 0;
+		for (int i = 0; i < symbols.length; i++) {
+			if (symbols[i] != null) {
+				remaining |= 1 << i;
+			}
+		}
+		return remaining;
+	}
+
+	/**
+	 * @param card the card number
+	 * @return the symbol of the card
+	 */
+	public static String getSymbol(int card) {
+		return ALL_SYMBOLS[card];
+	}
+
+	/**
+	 * @return the number of different cards
+	 */
+	public static int size() {
+		return ALL_SYMBOLS.length;
+	}
+
 }
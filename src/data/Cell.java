@@ -19,19 +19,23 @@ public class Cell {
 	 */
 	private int y;
 	/**
-	 * Contains the elements placed on the cell
+	 * the number of cuboids on the cell
 	 */
-	private Element[] elements;
+	private byte height;
 	/**
-	 * Indicates whether the cell contains a tower
+	 * the last cuboid placed on the cell and the dome on the cell, kept to be
+	 * returned as top element
 	 */
-	private boolean containsTower;
+	private Cuboid cuboid;
+	private Dome dome;
+	/**
+	 * the figure standing on the cell or null
+	 */
+	private Figure occupant;
 
 	public Cell(int x, int y) {
 		this.x = x;
 		this.y = y;
-		elements = new Element[5];
-		containsTower = false;
 	}
 
 	/**
@@ -42,17 +46,27 @@ public class Cell {
 	 * @return true if adding the new element was successful
 	 */
 	public boolean addElement(Element newElement) {
-		if (!isBlocked()) {
-			if (!getContainsTower() || (getContainsTower() && newElement instanceof Dome)) {
-				for (int i = 0; i < elements.length; i++) {
-					if (elements[i] == null) {
-						elements[i] = newElement;
-						return true;
-					}
-				}
-			}
+		if (isBlocked() || getContainsTower() && newElement instanceof Cuboid) {
+			return false;
+		}
+		place(newElement);
+		return true;
+	}
+
+	/**
+	 * Places the given element on top of the cell without any checks.
+	 * 
+	 * @param element a cuboid, a dome or a figure
+	 */
+	private void place(Element element) {
+		if (element instanceof Cuboid) {
+			cuboid = (Cuboid) element;
+			++height;
+		} else if (element instanceof Dome) {
+			dome = (Dome) element;
+		} else if (element instanceof Figure) {
+			occupant = (Figure) element;
 		}
-		return false;
 	}
 
 	/**
@@ -62,12 +76,7 @@ public class Cell {
 	 * @param dome dome to add
 	 */
 	public void addElementAtlas(Dome dome) {
-		for (int i = 0; i < elements.length; i++) {
-			if (elements[i] == null) {
-				elements[i] = dome;
-				break;
-			}
-		}
+		place(dome);
 	}
 
 	/**
@@ -79,47 +88,26 @@ public class Cell {
 	 *         method.
 	 */
 	public Figure addElementApollo(Figure figure) {
-		if (isOccupied()) {
-			Figure opponentFigure = getOccupyingFigure();
-			removeElement(getOccupyingFigure());
-			for (int i = 0; i < elements.length; i++) {
-				if (elements[i] == null) {
-					elements[i] = figure;
-					break;
-				}
-			}
-			return opponentFigure;
+		Figure opponentFigure = occupant;
+		if (opponentFigure != null) {
+			occupant = figure;
 		}
-		return null;
+		return opponentFigure;
 	}
 
 	/**
-	 * Removes the given element from the cell
+	 * Removes the given element from the cell. Removing a cuboid removes one level
+	 * of the cell.
 	 * 
 	 * @param element element to remove
 	 */
 	public void removeElement(Element element) {
-		for (int i = 0; i < elements.length; i++) {
-			if (elements[i].getName().equals(element.getName())) {
-				elements[i] = null;
-				break;
-			}
-		}
-		shiftElements();
-	}
-
-	/**
-	 * Shifts the elements of the array to the left so t hat all null elements are
-	 * at the end of the array
-	 */
-	public void shiftElements() {
-		for (int i = 0; i < elements.length; i++) {
-			if (elements[i] == null && i < elements.length - 1) {
-				if (elements[i + 1] != null) {
-					elements[i] = elements[i + 1];
-					elements[i + 1] = null;
-				}
-			}
+		if (element == occupant) {
+			occupant = null;
+		} else if (element instanceof Dome) {
+			dome = null;
+		} else if (element instanceof Cuboid && height > 0) {
+			--height;
 		}
 	}
 
@@ -130,54 +118,42 @@ public class Cell {
 	 * @return true if it contains a figure or a dome
 	 */
 	public boolean isBlocked() {
-		for (int i = 0; i < elements.length; i++) {
-			if (elements[i] instanceof Figure || elements[i] instanceof Dome) {
-				return true;
-			}
-		}
-		return false;
+		return occupant != null || dome != null;
 	}
 
 	/**
 	 * @return true if a figure is on the cell
 	 */
 	public boolean isOccupied() {
-		for (Element element : elements) {
-			if (element instanceof Figure) {
-				return true;
-			}
-		}
-		return false;
+		return occupant != null;
+	}
+
+	/**
+	 * @return true if a dome is on the cell
+	 */
+	public boolean isDome() {
+		return dome != null;
 	}
 
 	/**
 	 * @return the figure standing on the cell
 	 */
 	public Figure getOccupyingFigure() {
-		for (int i = 0; i < elements.length; i++) {
-			if (elements[i] instanceof Figure) {
-				return (Figure) elements[i];
-			}
-		}
-		return null;
+		return occupant;
 	}
 
 	/**
 	 * @return true if three consecutive cuboids stand on the cell
 	 */
 	public boolean getContainsTower() {
-		containsTower = false;
-		if (elements.length > 3) {
-			for (int i = 1; i < elements.length - 1; i++) {
-				Element ele1 = elements[i - 1];
-				Element ele2 = elements[i];
-				Element ele3 = elements[i + 1];
-				if (ele1 instanceof Cuboid && ele2 instanceof Cuboid && ele3 instanceof Cuboid) {
-					containsTower = true;
-				}
-			}
-		}
-		return containsTower;
+		return height == 3;
+	}
+
+	/**
+	 * @return the number of cuboids on the cell
+	 */
+	public int getHeight() {
+		return height;
 	}
 
 	public int getX() {
@@ -194,15 +170,12 @@ public class Cell {
 	 * @return the top element of the cell
 	 */
 	public Element getTopElement() {
-		Element lastElement = null;
-		for (int i = 0; i < elements.length; i++) {
-			if (elements[i] != null) {
-				lastElement = elements[i];
-			} else {
-				break;
-			}
+		if (occupant != null) {
+			return occupant;
+		} else if (dome != null) {
+			return dome;
 		}
-		return lastElement;
+		return height > 0 ? cuboid : null;
 	}
 
 	/**
@@ -211,17 +184,22 @@ public class Cell {
 	 * @return a String representation
 	 */
 	public String cellprint() {
-		StringBuffer sb = new StringBuffer();
-		for (int i = 0; i < elements.length; i++) {
-			if (elements[i] != null) {
-				if (i != 0) {
-					sb.append(",");
-				}
-				sb.append(elements[i].getName());
+		if (height == 0 && !isBlocked()) {
+			return "Empty";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < height; i++) {
+			if (i != 0) {
+				sb.append(",");
 			}
+			sb.append("C");
 		}
-		if (sb.length() == 0) {
-			sb.append("Empty");
+		Element top = occupant != null ? occupant : dome;
+		if (top != null) {
+			if (height != 0) {
+				sb.append(",");
+			}
+			sb.append(top.getName());
 		}
 		return sb.toString();
 	}
@@ -233,12 +211,6 @@ public class Cell {
 	 * @return the number of elements standing on the cell
 	 */
 	public int getCellLevel() {
-		int num = 0;
-		for (int i = 0; i < elements.length; i++) {
-			if (elements[i] != null) {
-				++num;
-			}
-		}
-		return num;
+		return isBlocked() ? height + 1 : height;
 	}
 }
@@ -7,11 +7,11 @@ import elements.Figure;
  *
  */
 public class Player {
-	private String name;
 	/**
-	 * Indicates the maximum number of cards a player can drawn during a game.
+	 * Indicates the maximum number of cards a player can draw during a game.
 	 */
-	private int maxCards;
+	public static final int MAX_CARDS = 3;
+	private String name;
 	/**
 	 * Indicates the actual number of cards the player has drawn.
 	 */
@@ -29,7 +29,6 @@ public class Player {
 		this.name = name;
 		figures = new Figure[2];
 		drawnCards = 0;
-		maxCards = 3;
 	}
 
 	/**
@@ -69,13 +68,17 @@ public class Player {
 	 * @return true if the player reached the limit of drawing cards.
 	 */
 	public boolean canDrawCard() {
-		return drawnCards < maxCards;
+		return drawnCards < MAX_CARDS;
 	}
 
 	public void increaseDrawnCards() {
 		++this.drawnCards;
 	}
 
+	public void decreaseDrawnCards() {
+		--this.drawnCards;
+	}
+
 	public void setTurn(boolean turn) {
 		this.turn = turn;
 	}
@@ -0,0 +1,126 @@
+package data;
+
+/**
+ * Contains the eight rotations and reflections of the board as tables. A
+ * symmetry is numbered by three bits: bit 2 swaps the x- and y-coordinates,
+ * then bit 0 mirrors the x-coordinate and bit 1 the y-coordinate. Symmetry 0
+ * leaves the board as it is. Masks of cells are transformed with one table
+ * lookup per byte.
+ *
+ */
+public final class Symmetry {
+	/**
+	 * the number of symmetries of the board
+	 */
+	public static final int COUNT = 8;
+	public static final int IDENTITY = 0;
+	/**
+	 * contains for each symmetry the cell each cell is mapped to
+	 */
+	private static final int[][] SQUARES = new int[COUNT][BitBoard.CELLS];
+	/**
+	 * contains for each symmetry and each of the four bytes of a mask the mask
+	 * each value of the byte is mapped to
+	 */
+	private static final int[][][] MASKS = new int[COUNT][4][256];
+	private static final int[] INVERSE = new int[COUNT];
+	/**
+	 * contains for two symmetries the symmetry which applies the first and then
+	 * the second one
+	 */
+	private static final int[][] COMPOSE = new int[COUNT][COUNT];
+
+	static {
+		int last = BitBoard.SIZE - 1;
+		for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+			for (int square = 0; square < BitBoard.CELLS; square++) {
+				int x = BitBoard.getX(square);
+				int y = BitBoard.getY(square);
+				if ((symmetry & 4) != 0) {
+					int swap = x;
+					x = y;
+					y = swap;
+				}
+				x = (symmetry & 1) != 0 ? last - x : x;
+				y = (symmetry & 2) != 0 ? last - y : y;
+				SQUARES[symmetry][square] = BitBoard.square(x, y);
+			}
+			for (int part = 0; part < 4; part++) {
+				for (int value = 0; value < 256; value++) {
+					int mask = 0;
+					for (int bit = 0; bit < 8 && 8 * part + bit < BitBoard.CELLS; bit++) {
+						if ((value >>> bit & 1) != 0) {
+							mask |= 1 << SQUARES[symmetry][8 * part + bit];
+						}
+					}
+					MASKS[symmetry][part][value] = mask;
+				}
+			}
+		}
+		for (int first = 0; first < COUNT; first++) {
+			for (int second = 0; second < COUNT; second++) {
+				COMPOSE[first][second] = find(first, second);
+				if (COMPOSE[first][second] == IDENTITY) {
+					INVERSE[first] = second;
+				}
+			}
+		}
+	}
+
+	private Symmetry() {
+	}
+
+	/**
+	 * Finds the symmetry which applies the first and then the second symmetry.
+	 */
+	private static int find(int first, int second) {
+		for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+			boolean equal = true;
+			for (int square = 0; square < BitBoard.CELLS && equal; square++) {
+				equal = SQUARES[symmetry][square] == SQUARES[second][SQUARES[first][square]];
+			}
+			if (equal) {
+				return symmetry;
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * @param symmetry the number of the symmetry
+	 * @param square   a cell
+	 * @return the cell the given cell is mapped to
+	 */
+	public static int square(int symmetry, int square) {
+		return SQUARES[symmetry][square];
+	}
+
+	/**
+	 * @param symmetry the number of the symmetry
+	 * @param mask     a mask of cells
+	 * @return the mask of the cells the given cells are mapped to
+	 */
+	public static int mask(int symmetry, int mask) {
+		int[][] parts = MASKS[symmetry];
+		return parts[0][mask & 255] | parts[1][mask >>> 8 & 255] | parts[2][mask >>> 16 & 255]
+				| parts[3][mask >>> 24];
+	}
+
+	/**
+	 * @param symmetry the number of the symmetry
+	 * @return the symmetry which reverts the given one
+	 */
+	public static int inverse(int symmetry) {
+		return INVERSE[symmetry];
+	}
+
+	/**
+	 * @param first  the symmetry applied first
+	 * @param second the symmetry applied second
+	 * @return the symmetry which applies both
+	 */
+	public static int compose(int first, int second) {
+		return COMPOSE[first][second];
+	}
+
+}
@@ -0,0 +1,175 @@
+package data;
+
+import java.util.Random;
+
+/**
+ * Contains the random numbers used to compute the 64-bit hash key of a
+ * position. The key of a position is the exclusive or of the numbers of all its
+ * parts, so moving a figure or adding an element updates the key with one or
+ * two exclusive ors. The numbers are created with a fixed seed, keys are
+ * therefore the same in every run.
+ *
+ */
+public final class Zobrist {
+	/**
+	 * contains for each cell and level the number of a cuboid on that level
+	 */
+	private static final long[][] CUBOID = new long[4][BitBoard.CELLS];
+	private static final long[] DOME = new long[BitBoard.CELLS];
+	/**
+	 * contains for each of the four figures and each cell the number of the figure
+	 * standing on that cell
+	 */
+	private static final long[][] WORKER = new long[4][BitBoard.CELLS];
+	/**
+	 * the number of the second player being in turn
+	 */
+	private static final long SIDE;
+	/**
+	 * the number of the player in turn not being allowed to move up
+	 */
+	private static final long LOCK;
+	/**
+	 * contains the number of each card that is still in the card set
+	 */
+	private static final long[] CARDS = new long[CardSet.size()];
+	/**
+	 * contains for each player and number of drawn cards a number
+	 */
+	private static final long[][] DRAWN = new long[2][Player.MAX_CARDS + 1];
+	/**
+	 * contains the numbers for the progress of the current turn
+	 */
+	private static final long[] TURN_CARD = new long[CardSet.size()];
+	private static final long[] MOVED = new long[3];
+	private static final long[] BUILT = new long[3];
+	private static final long ATHENA_MOVED_UP;
+
+	static {
+		Random random = new Random(0x5A27081D1L);
+		fill(CUBOID, random);
+		fill(DOME, random);
+		fill(WORKER, random);
+		SIDE = random.nextLong();
+		LOCK = random.nextLong();
+		fill(CARDS, random);
+		fill(DRAWN, random);
+		fill(TURN_CARD, random);
+		fill(MOVED, random);
+		fill(BUILT, random);
+		ATHENA_MOVED_UP = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	private static void fill(long[] numbers, Random random) {
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = random.nextLong();
+		}
+	}
+
+	private static void fill(long[][] numbers, Random random) {
+		for (long[] row : numbers) {
+			fill(row, random);
+		}
+	}
+
+	/**
+	 * @param level  the level of the cuboid, from 1 to 3
+	 * @param square the cell
+	 * @return the number of a cuboid on the given level of the cell
+	 */
+	public static long cuboid(int level, int square) {
+		return CUBOID[level][square];
+	}
+
+	public static long dome(int square) {
+		return DOME[square];
+	}
+
+	/**
+	 * @param worker the number of the figure, from 0 to 3
+	 * @param square the cell
+	 * @return the number of the figure standing on the cell
+	 */
+	public static long worker(int worker, int square) {
+		return WORKER[worker][square];
+	}
+
+	public static long side(int side) {
+		return side == 0 ? 0 : SIDE;
+	}
+
+	public static long canMoveUp(boolean canMoveUp) {
+		return canMoveUp ? 0 : LOCK;
+	}
+
+	/**
+	 * @param card the card number
+	 * @return the number of the card being in the card set
+	 */
+	public static long card(int card) {
+		return CARDS[card];
+	}
+
+	/**
+	 * @param cards a mask of the cards in the card set
+	 * @return the combined number of the cards
+	 */
+	public static long cards(int cards) {
+		long key = 0;
+		for (int i = 0; i < CARDS.length; i++) {
+			if ((cards >>> i & 1) != 0) {
+				key ^= CARDS[i];
+			}
+		}
+		return key;
+	}
+
+	public static long drawnCards(int side, int drawnCards) {
+		return DRAWN[side][drawnCards];
+	}
+
+	/**
+	 * @param card the card drawn in the current turn or -1
+	 * @return the number of the card
+	 */
+	public static long turnCard(int card) {
+		return card < 0 ? 0 : TURN_CARD[card];
+	}
+
+	public static long moved(int moved) {
+		return MOVED[moved];
+	}
+
+	public static long built(int built) {
+		return BUILT[built];
+	}
+
+	public static long athenaMovedUp(boolean athenaMovedUp) {
+		return athenaMovedUp ? ATHENA_MOVED_UP : 0;
+	}
+
+	/**
+	 * Computes the part of the key which does not depend on the board.
+	 *
+	 * @param side          the player in turn
+	 * @param canMoveUp     whether the player in turn can move up
+	 * @param cards         a mask of the cards in the card set
+	 * @param firstDrawn    the number of cards drawn by the first player
+	 * @param secondDrawn   the number of cards drawn by the second player
+	 * @param card          the card drawn in the current turn or -1
+	 * @param moved         the number of moves in the current turn
+	 * @param built         the number of builds in the current turn
+	 * @param athenaMovedUp whether a figure was moved up with the athena card
+	 * @return the combined number
+	 */
+	public static long state(int side, boolean canMoveUp, int cards, int firstDrawn, int secondDrawn, int card,
+			int moved, int built, boolean athenaMovedUp) {
+		return side(side) ^ canMoveUp(canMoveUp) ^ cards(cards) ^ drawnCards(0, firstDrawn)
+				^ drawnCards(1, secondDrawn) ^ turnCard(card) ^ moved(moved) ^ built(built)
+				^ athenaMovedUp(athenaMovedUp);
+	}
+
+}
@@ -0,0 +1,146 @@
+package game;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.kit.informatik.Terminal;
+
+/**
+ * Plays many scripted games without a terminal and prints a summary of each
+ * game. A script is a text file whose first line contains the four figures of
+ * {@link Game#initializePlayers} separated by spaces, followed by one command
+ * per line as they would be entered in {@link Game#main(String[])}. The games
+ * are played on a pool of threads and the summaries are printed in the order
+ * of the scripts.
+ *
+ * <p>
+ * Usage: {@code BatchRunner <directory|manifest> [threads]}, where a directory
+ * contains the scripts and a manifest lists the paths of the scripts, one per
+ * line and relative to the manifest.
+ *
+ */
+public class BatchRunner {
+	private int threads;
+
+	/**
+	 * @param threads the number of threads playing games
+	 */
+	public BatchRunner(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Returns the scripts of the given directory, sorted by name, or the scripts
+	 * listed in the given manifest.
+	 *
+	 * @param path a directory or a manifest
+	 * @return the paths of the scripts
+	 */
+	public static List<String> findScripts(String path) {
+		File file = new File(path);
+		List<String> scripts = new ArrayList<String>();
+		if (file.isDirectory()) {
+			File[] files = file.listFiles(File::isFile);
+			Arrays.sort(files);
+			for (File script : files) {
+				scripts.add(script.getPath());
+			}
+		} else {
+			for (String line : Terminal.readFile(path)) {
+				if (!line.trim().isEmpty()) {
+					scripts.add(new File(file.getParentFile(), line.trim()).getPath());
+				}
+			}
+		}
+		return scripts;
+	}
+
+	/**
+	 * Plays the given scripts. Nothing is printed while the games are played.
+	 *
+	 * @param scripts the paths of the scripts
+	 * @return the summary of each game, in the order of the scripts
+	 */
+	public List<String> run(List<String> scripts) {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (String script : scripts) {
+				results.add(pool.submit(() -> play(script)));
+			}
+			List<String> summaries = new ArrayList<String>();
+			for (Future<String> result : results) {
+				summaries.add(result.get());
+			}
+			return summaries;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new ArrayList<String>();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Plays one script until the game is over, a quit command is reached or the
+	 * script ends.
+	 *
+	 * @param script the path of the script
+	 * @return the summary with the winner, the number of moves and the board
+	 */
+	public static String play(String script) {
+		StringBuilder summary = new StringBuilder(script).append("\n");
+		String[] lines;
+		Game game = new Game(NullSink.INSTANCE);
+		try {
+			lines = Terminal.readFile(script);
+			String[] setup = lines.length > 0 ? lines[0].trim().split(" +") : new String[0];
+			if (setup.length != 4) {
+				return summary.append("error: the first line needs two figures and their positions for each player.")
+						.toString();
+			}
+			game.initializePlayers(setup[0], setup[1], setup[2], setup[3]);
+		} catch (RuntimeException e) {
+			return summary.append("error: ").append(e).toString();
+		}
+		if (game.getTurn() == null) {
+			return summary.append("error: incorrent figure name format.").toString();
+		}
+		try {
+			for (int i = 1; i < lines.length && game.isGameOn(); i++) {
+				if (!game.execute(lines[i])) {
+					break;
+				}
+			}
+		} catch (RuntimeException e) {
+			summary.append("error: ").append(e).append("\n");
+		}
+		summary.append("winner: ").append(game.isGameOn() ? "none" : game.getActivePlayer().getName()).append("\n");
+		summary.append("moves: ").append(game.getMoves()).append("\n");
+		return summary.append(game.getBoard().print()).toString();
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			Terminal.printError("please enter a directory or a manifest of scripts.");
+			return;
+		}
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long start = System.nanoTime();
+		List<String> summaries = new BatchRunner(threads).run(findScripts(args[0]));
+		for (String summary : summaries) {
+			Terminal.printLine(summary);
+			Terminal.printLine("");
+		}
+		Terminal.printLine(summaries.size() + " games in " + (System.nanoTime() - start) / 1000000 + " ms");
+	}
+
+}
@@ -0,0 +1,16 @@
+package game;
+
+/**
+ * Executes one command of the terminal on a game.
+ *
+ */
+@FunctionalInterface
+interface CommandHandler {
+
+	/**
+	 * @param game the game
+	 * @param line the command and its argument
+	 * @return false if the command quits the game
+	 */
+	boolean execute(Game game, CommandLine line);
+}
@@ -0,0 +1,146 @@
+package game;
+
+/**
+ * Splits a line entered on the terminal into its command and the fields of its
+ * argument without creating strings or arrays. The command and the argument
+ * are separated by spaces, the fields of the argument by semicolons. The parts
+ * are found like {@code line.split(" ")} and {@code argument.split(";")} find
+ * them, so a part that is missing throws an
+ * {@link ArrayIndexOutOfBoundsException} and a number that cant be parsed a
+ * {@link NumberFormatException} as before.
+ *
+ */
+public class CommandLine {
+	private String line;
+	/**
+	 * the end of the command and the bounds of the argument, argumentStart is -1
+	 * if the line has no argument
+	 */
+	private int commandEnd;
+	private int argumentStart;
+	private int argumentEnd;
+	/**
+	 * the bounds of the last field that has been found
+	 */
+	private int fieldStart;
+	private int fieldEnd;
+
+	/**
+	 * Reads the given line. The command is the text up to the first space, the
+	 * argument the text up to the next space.
+	 *
+	 * @param line the line
+	 */
+	public void reset(String line) {
+		this.line = line;
+		int length = line.length();
+		commandEnd = line.indexOf(' ');
+		if (commandEnd < 0) {
+			commandEnd = length;
+		}
+		argumentStart = -1;
+		for (int i = commandEnd; i < length; i++) {
+			if (line.charAt(i) != ' ') {
+				argumentStart = commandEnd + 1;
+				break;
+			}
+		}
+		if (argumentStart >= 0) {
+			argumentEnd = line.indexOf(' ', argumentStart);
+			if (argumentEnd < 0) {
+				argumentEnd = length;
+			}
+		}
+	}
+
+	/**
+	 * @param name a command name
+	 * @return true if the command of the line is the given name
+	 */
+	public boolean isCommand(String name) {
+		return commandEnd == name.length() && line.startsWith(name);
+	}
+
+	/**
+	 * @return the argument
+	 */
+	public String getArgument() {
+		checkArgument();
+		return line.substring(argumentStart, argumentEnd);
+	}
+
+	/**
+	 * @param value a text
+	 * @return true if the argument is the given text
+	 */
+	public boolean argumentEquals(String value) {
+		checkArgument();
+		return argumentEnd - argumentStart == value.length() && line.startsWith(value, argumentStart);
+	}
+
+	/**
+	 * @param index the number of the field in the argument
+	 * @return the field
+	 */
+	public String getField(int index) {
+		findField(index);
+		return line.substring(fieldStart, fieldEnd);
+	}
+
+	/**
+	 * @param index the number of the field in the argument
+	 * @param value a text
+	 * @return true if the field is the given text
+	 */
+	public boolean fieldEquals(int index, String value) {
+		findField(index);
+		return fieldEnd - fieldStart == value.length() && line.startsWith(value, fieldStart);
+	}
+
+	/**
+	 * @param index the number of the field in the argument
+	 * @return the field parsed as a decimal number
+	 */
+	public int getInt(int index) {
+		findField(index);
+		return Integer.parseInt(line, fieldStart, fieldEnd, 10);
+	}
+
+	private void checkArgument() {
+		if (argumentStart < 0) {
+			throw new ArrayIndexOutOfBoundsException(1);
+		}
+	}
+
+	/**
+	 * Finds the bounds of the field with the given number. A field exists if it
+	 * or a later field is not empty, or if the argument has no semicolon at all.
+	 */
+	private void findField(int index) {
+		checkArgument();
+		int start = argumentStart;
+		for (int i = 0; i < index; i++) {
+			int next = line.indexOf(';', start);
+			if (next < 0 || next >= argumentEnd) {
+				throw new ArrayIndexOutOfBoundsException(index);
+			}
+			start = next + 1;
+		}
+		int end = line.indexOf(';', start);
+		if (end < 0 || end > argumentEnd) {
+			end = argumentEnd;
+		}
+		boolean single = index == 0 && end == argumentEnd;
+		if (!single) {
+			int rest = start;
+			while (rest < argumentEnd && line.charAt(rest) == ';') {
+				++rest;
+			}
+			if (rest == argumentEnd) {
+				throw new ArrayIndexOutOfBoundsException(index);
+			}
+		}
+		fieldStart = start;
+		fieldEnd = end;
+	}
+}
@@ -0,0 +1,38 @@
+package game;
+
+/**
+ * Collects the printed lines and writes them to the standard output at once
+ * when it is flushed or when the buffer is full. The bytes written are the same
+ * as if every line had been printed with {@link edu.kit.informatik.Terminal}.
+ *
+ */
+public class ConsoleSink implements OutputSink {
+	/**
+	 * the number of characters after which the buffer is written without waiting
+	 * for a flush
+	 */
+	private static final int CAPACITY = 8192;
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	private StringBuilder buffer;
+
+	public ConsoleSink() {
+		buffer = new StringBuilder(CAPACITY);
+	}
+
+	@Override
+	public void printLine(Object object) {
+		buffer.append(object).append(LINE_SEPARATOR);
+		if (buffer.length() >= CAPACITY) {
+			flush();
+		}
+	}
+
+	@Override
+	public void flush() {
+		if (buffer.length() > 0) {
+			System.out.print(buffer);
+			System.out.flush();
+			buffer.setLength(0);
+		}
+	}
+}
@@ -1,12 +1,12 @@
 package game;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
+import data.BitBoard;
 import data.Board;
 import data.CardSet;
-import data.Cell;
 import data.Player;
-import edu.kit.informatik.Terminal;
+import data.Zobrist;
 import elements.Cuboid;
 import elements.Dome;
 import elements.Element;
@@ -17,6 +17,15 @@ import elements.Figure;
  *
  */
 public class Game {
+	/**
+	 * the names of the commands and the handlers that execute them, a handler
+	 * returns false if the command quits the game
+	 */
+	private static final String[] COMMAND_NAMES = { "move", "build", "turn", "draw-card", "print", "cellprint",
+			"bag", "surrender", "undo", "redo", "quit" };
+	private static final CommandHandler[] COMMANDS = { Game::executeMove, Game::executeBuild, Game::executeTurn,
+			Game::executeDrawCard, Game::executePrint, Game::executeCellprint, Game::executeBag,
+			Game::executeSurrender, Game::executeUndo, Game::executeRedo, Game::executeQuit };
 	/**
 	 * the board of the game.
 	 */
@@ -41,11 +50,79 @@ public class Game {
 	 * Contains the card set for game.
 	 */
 	private CardSet cardset;
+	/**
+	 * contains the records of the successful actions, see {@link UndoRecord}. The
+	 * records from historySize up to redoSize belong to actions that have been
+	 * taken back and can be repeated.
+	 */
+	private int[] history;
+	private int historySize;
+	private int redoSize;
+	/**
+	 * receives everything the game prints
+	 */
+	private OutputSink output;
+	/**
+	 * splits the command that is executed
+	 */
+	private CommandLine commandLine;
 
+	/**
+	 * Creates a game that prints to a {@link ConsoleSink}. Its output is written
+	 * when the sink is flushed.
+	 */
 	public Game() {
+		this(new ConsoleSink());
+	}
+
+	/**
+	 * Creates a game that prints to the given sink.
+	 * 
+	 * @param output the sink of the output
+	 */
+	public Game(OutputSink output) {
+		this.output = output;
+		this.commandLine = new CommandLine();
 		this.board = new Board();
 		this.gameOn = true;
 		this.cardset = new CardSet();
+		this.history = new int[64];
+	}
+
+	/**
+	 * Creates a game with the given state, see
+	 * {@link GameState#toGame(OutputSink, String...)}.
+	 * 
+	 * @param state  the state
+	 * @param output the sink of the output
+	 * @param names  the names of the four figures
+	 */
+	Game(GameState state, OutputSink output, String[] names) {
+		this(output);
+		p1 = new Player("p1");
+		p2 = new Player("p2");
+		p1.setTurn(state.getSide() == 0);
+		p2.setTurn(state.getSide() == 1);
+		p1.placeFigures(names[0], "0", "0", names[1], "0", "0");
+		p2.placeFigures(names[2], "0", "0", names[3], "0", "0");
+		for (int i = 0; i < state.getDrawnCards(0); i++) {
+			p1.increaseDrawnCards();
+		}
+		for (int i = 0; i < state.getDrawnCards(1); i++) {
+			p2.increaseDrawnCards();
+		}
+		for (int card = 0; card < CardSet.size(); card++) {
+			if ((state.getCards() >> card & 1) == 0) {
+				cardset.remove(CardSet.getSymbol(card));
+			}
+		}
+		BitBoard bitBoard = new BitBoard();
+		bitBoard.set(state.getLevelMask(1), state.getLevelMask(2), state.getLevelMask(3), state.getDomes(),
+				state.getWorkers());
+		board = bitBoard.toBoard(p1, p2);
+		turn = new Turn();
+		turn.setState(state.getTurnState());
+		gameOn = state.getWinner() < 0;
 	}
 
 	/**
@@ -78,7 +155,7 @@ public class Game {
 			}
 			turn = new Turn();
 		} else {
-			Terminal.printError("incorrent figure name format.");
+			output.printError("incorrent figure name format.");
 		}
 	}
 
@@ -90,9 +167,15 @@ public class Game {
 	 */
 	public boolean checkFigureNames(String[] names) {
 		for (String name : names) {
-			if (!name.matches("[0-9a-z]+")) {
+			if (name.isEmpty()) {
 				return false;
 			}
+			for (int i = 0; i < name.length(); i++) {
+				char c = name.charAt(i);
+				if ((c < '0' || c > '9') && (c < 'a' || c > 'z')) {
+					return false;
+				}
+			}
 		}
 		return true;
 	}
@@ -103,16 +186,17 @@ public class Game {
 	 */
 	public void changeTurns() {
 		if (turn.getMoved() > 0 && turn.getBuilt() > 0) {
-			if (turn.getCanMoveUp()) {
+			record(UndoRecord.create(UndoRecord.TURN, turn.getState(), gameOn));
+			if (!turn.isAthenaMovedUp()) {
 				turn = new Turn();
 			} else {
 				turn = new Turn(false);
 			}
 			p1.changeTurn();
 			p2.changeTurn();
-			Terminal.printLine(getActivePlayer().getName());
+			output.printLine(getActivePlayer().getName());
 		} else {
-			Terminal.printError("each player has to at least move a figure and build an element.");
+			output.printError("each player has to at least move a figure and build an element.");
 		}
 	}
 
@@ -154,13 +238,7 @@ public class Game {
 	 *         coordinates.
 	 */
 	public boolean moveAllowed(int fromX, int fromY, int toX, int toY) {
-		ArrayList<Cell> cells = board.getNeighbors(fromX, fromY);
-		for (Cell c : cells) {
-			if (c.getX() == toX && c.getY() == toY) {
-				return true;
-			}
-		}
-		return false;
+		return board.isNeighbor(fromX, fromY, toX, toY);
 	}
 
 	/**
@@ -177,34 +255,50 @@ public class Game {
 		String type = values[0];
 		int x = Integer.parseInt(values[1]);
 		int y = Integer.parseInt(values[2]);
-		Element element = null;
 		if (type.equals("C")) {
-			element = new Cuboid(x, y);
+			build(new Cuboid(x, y), x, y);
 		} else if (type.equals("D")) {
-			element = new Dome(x, y);
+			build(new Dome(x, y), x, y);
 		} else {
-			Terminal.printError("please choose a valid type");
-			return;
+			output.printError("please choose a valid type");
 		}
+	}
+
+	/**
+	 * Checks whether the given cuboid or dome can be placed to the coordinates. If
+	 * not an appropriate message is printed. If yes then the element is added to
+	 * the board's cell and the turn instance is updated.
+	 * 
+	 * @param element a cuboid or a dome
+	 * @param x       the x-coordinate of the cell
+	 * @param y       the y-coordinate of the cell
+	 */
+	public void build(Element element, int x, int y) {
 		if (turn.getMoved() == 0) {
-			Terminal.printError("you can build an element after moving one of your figures.");
+			output.printError("you can build an element after moving one of your figures.");
 		} else if (!turn.canBuild()) {
-			Terminal.printError("you have reached the maximum number of built elements in this turn.");
+			output.printError("you have reached the maximum number of built elements in this turn.");
 		} else if (board.getCells()[x][y].getContainsTower() && element instanceof Cuboid) {
-			Terminal.printError("the maximum number of cuboids has been reached on this cell.");
+			output.printError("the maximum number of cuboids has been reached on this cell.");
 		} else if (board.getCells()[x][y].isOccupied()) {
-			Terminal.printError("this cell is occupied by another player's figure.");
+			output.printError("this cell is occupied by another player's figure.");
+		} else if (board.getCells()[x][y].isBlocked()) {
+			output.printError("this cell already contains a dome.");
 		} else if (element instanceof Dome && board.getAvailableDomes() == 0) {
-			Terminal.printError("no more domes are available in the board.");
+			output.printError("no more domes are available in the board.");
 		} else if (element instanceof Cuboid && board.getAvailableCuboids() == 0) {
-			Terminal.printError("no more cuboids are available in the board.");
+			output.printError("no more cuboids are available in the board.");
 		} else if (turn.isAtlasDrawn() && element instanceof Dome) {
+			record(UndoRecord.withBuild(UndoRecord.create(UndoRecord.BUILD, turn.getState(), gameOn),
+					BitBoard.square(x, y), true));
 			board.addElementAtlas((Dome) element, x, y);
 			turn.increaseBuilt();
 			updateGameOn();
 		} else if (!board.getCells()[x][y].getContainsTower() && element instanceof Dome) {
-			Terminal.printError("you can build a Dome on a tower.");
+			output.printError("you can build a Dome on a tower.");
 		} else {
+			record(UndoRecord.withBuild(UndoRecord.create(UndoRecord.BUILD, turn.getState(), gameOn),
+					BitBoard.square(x, y), element instanceof Dome));
 			this.board.addElement(element, x, y);
 			turn.increaseBuilt();
 			updateGameOn();
@@ -219,21 +313,23 @@ public class Game {
 	 * @param cardSymbol the card name
 	 */
 	public void drawCard(String cardSymbol) {
+		int state = turn.getState();
 		if (this.turn.isDrawn()) {
-			Terminal.printError("you have already drawn a card in this turn.");
+			output.printError("you have already drawn a card in this turn.");
 		} else if (turn.getMoved() > 0) {
-			Terminal.printError("you have already moved a figure.");
+			output.printError("you have already moved a figure.");
 		} else if (turn.getBuilt() > 0) {
-			Terminal.printError("you have already built an element.");
+			output.printError("you have already built an element.");
 		} else if (!getActivePlayer().canDrawCard()) {
-			Terminal.printError("you have reached the maximum number of drawn cards.");
+			output.printError("you have reached the maximum number of drawn cards.");
 		} else if (!draw(cardSymbol)) {
-			Terminal.printError("please enter a valid cardsymbol.");
+			output.printError("please enter a valid cardsymbol.");
 		} else {
+			record(UndoRecord.withCard(UndoRecord.create(UndoRecord.DRAW, state, gameOn), getCardNumber(cardSymbol)));
 			this.turn.hasDrawn();
 			getActivePlayer().increaseDrawnCards();
 			cardset.remove(cardSymbol);
-			Terminal.printLine("OK");
+			output.printLine("OK");
 		}
 	}
 
@@ -266,7 +362,7 @@ public class Game {
 				turn.setHermesDrawn(true);
 				break;
 			default:
-				Terminal.printError("card symbol not recognized");
+				output.printError("card symbol not recognized");
 			}
 			return true;
 		}
@@ -285,46 +381,54 @@ public class Game {
 	 */
 	public void move(String figureName, int toX, int toY) {
 		Figure figure = getActivePlayer().getFigure(figureName);
+		int state = turn.getState();
 		if (!turn.canMove()) {
-			Terminal.printError("you have reached the maximum number of moves in this turn.");
+			output.printError("you have reached the maximum number of moves in this turn.");
 		} else if (getActivePlayer().getFigure(figureName) == null) {
-			Terminal.printError("this player doesnt own a figure with the given figure name.");
+			output.printError("this player doesnt own a figure with the given figure name.");
 		} else if (turn.getBuilt() > 0) {
-			Terminal.printError("you have already built a dome or a cuboid.");
+			output.printError("you have already built a dome or a cuboid.");
 		} else if (!board.canMoveFigureBasedOnLevel(figure, toX, toY)) {
-			Terminal.printError("the specified cell is more than one level higher than your figure level.");
+			output.printError("the specified cell is more than one level higher than your figure level.");
 		} else if (!turn.getCanMoveUp() && board.getCells()[toX][toY].getCellLevel() > figure.getLevel()) {
-			Terminal.printError("you cant move up as your opponent has previously drawn an athena card.");
-		} else if (turn.isHermesDrawn() && board.getCells()[toX][toY].getCellLevel() == figure.getLevel()) {
+			output.printError("you cant move up as your opponent has previously drawn an athena card.");
+		} else if (turn.isHermesDrawn() && !board.getCells()[toX][toY].isBlocked()
+				&& board.getCells()[toX][toY].getCellLevel() == figure.getLevel()) {
+			recordMove(UndoRecord.MOVE, state, figure, toX, toY);
 			board.moveFigureHermes(figure, toX, toY);
 			getActivePlayer().move(figureName, toX, toY);
 			turn.increaseMove();
 			updateGameOn();
 		} else if (!moveAllowed(figure.getX(), figure.getY(), toX, toY)) {
-			Terminal.printError("you can move your figure to one of its surrounding cells.");
-		} else if (turn.isApolloDrawn() && board.getCells()[toX][toY].isOccupied()) {
+			output.printError("you can move your figure to one of its surrounding cells.");
+		} else if (turn.isApolloDrawn() && isOpponentFigure(board.getCells()[toX][toY].getOccupyingFigure())) {
+			int newFigureLevel = board.getCellLevel(toX, toY) - 1;
+			int opponentLevel = figure.getLevel();
+			int fromX = figure.getX();
+			int fromY = figure.getY();
+			recordMove(UndoRecord.APOLLO, state, figure, toX, toY);
 			Figure opponent = board.moveFigureApollo(figure, toX, toY);
-			int newFigureLevel = board.getCellLevel(toX, toY);
-			int opponentLevel = board.getCellLevel(opponent.getX(), opponent.getY());
 
 			getActivePlayer().move(figureName, toX, toY);
 			getActivePlayer().getFigure(figureName).setLevel(newFigureLevel);
 			turn.increaseMove();
 
-			getInactivePlayer().move(opponent.getName(), opponent.getX(), opponent.getY());
+			getInactivePlayer().move(opponent.getName(), fromX, fromY);
 			getInactivePlayer().getFigure(opponent.getName()).setLevel(opponentLevel);
 			updateGameOn();
 		} else if (board.getCells()[toX][toY].isBlocked()) {
-			Terminal.printError("this cell is blocked, it either contains another figure or a dome");
+			output.printError("this cell is blocked, it either contains another figure or a dome");
 		} else if (turn.isAthenaDrawn() && board.getCellLevel(toX, toY) == (figure.getLevel() + 1)) {
-			turn.setCanMoveUp(false);
-			board.moveFigure(figure, toX, toY);
+			recordMove(UndoRecord.MOVE, state, figure, toX, toY);
+			turn.setAthenaMovedUp(true);
 			int newFigureLevel = board.getCellLevel(toX, toY);
+			board.moveFigure(figure, toX, toY);
 			getActivePlayer().move(figureName, toX, toY);
 			getActivePlayer().getFigure(figureName).setLevel(newFigureLevel);
 			turn.increaseMove();
 			updateGameOn();
 		} else {
+			recordMove(UndoRecord.MOVE, state, figure, toX, toY);
 			int newFigureLevel = board.getCellLevel(toX, toY);
 			board.moveFigure(figure, toX, toY);
 			getActivePlayer().move(figureName, toX, toY);
@@ -334,86 +438,422 @@ public class Game {
 		}
 	}
 
+	/**
+	 * @param figure a figure or null
+	 * @return true if the figure belongs to the player who is not in turn
+	 */
+	private boolean isOpponentFigure(Figure figure) {
+		for (Figure opponentFigure : getInactivePlayer().getFigures()) {
+			if (opponentFigure == figure) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Checks whether the current player has a figure that has reached the third
-	 * level, meaning it stands on a tower thus the player has won. It also checks
-	 * whether the opponent can move one of its figures or build an element and
-	 * updates the gameOn variable.
+	 * level, meaning it stands on a tower thus the player has won. The player also
+	 * wins if the opponent cant move one of his figures or cant build in his next
+	 * turn or if no cell is left to build on. Updates the gameOn variable. Uses the counts kept
+	 * by the board, so the check doesnt depend on the size of the board.
 	 */
 	public void updateGameOn() {
 		for (Figure figure : getActivePlayer().getFigures()) {
-			if (figure.getLevel() == 4) {
+			if (figure.getLevel() == 3) {
 				gameOn = false;
 				return;
 			}
 		}
-		Figure[] opponentFigures = getInactivePlayer().getFigures();
-		int x1 = opponentFigures[0].getX();
-		int y1 = opponentFigures[0].getY();
-		int x2 = opponentFigures[1].getX();
-		int y2 = opponentFigures[1].getY();
-		ArrayList<Cell> cel1 = board.getUnblockedNeighbors(x1, y1);
-		ArrayList<Cell> cel2 = board.getUnblockedNeighbors(x2, y2);
-		if (cel1.isEmpty() && cel2.isEmpty()) {
+		if (!canOpponentMove() || !canOpponentBuild() || board.getFreeCells() == 0) {
 			gameOn = false;
 			return;
 		}
-		boolean freeCell = false;
-		for (Cell[] cellLine : board.getCells()) {
-			for (Cell cell : cellLine) {
-				if (!cell.isBlocked()) {
-					freeCell = true;
+		if (gameOn) {
+			output.printLine("OK");
+		}
+	}
+
+	/**
+	 * Checks whether the player who is not in turn can move one of his figures in
+	 * his next turn. A figure can move to an unblocked surrounding cell which is
+	 * at most one level higher, or not higher if the current player has moved up
+	 * with the athena card. If the opponent can still draw the hermes or the
+	 * apollo card, he can also move to an unblocked cell on the same level or
+	 * swap with a surrounding figure of the current player.
+	 * 
+	 * @return true if the opponent can move a figure
+	 */
+	private boolean canOpponentMove() {
+		Player opponent = getInactivePlayer();
+		boolean canMoveUp = !turn.isAthenaMovedUp();
+		boolean canDraw = opponent.canDrawCard();
+		boolean hermes = canDraw && (cardset.getRemaining() >> CardSet.HERMES & 1) != 0;
+		boolean apollo = canDraw && (cardset.getRemaining() >> CardSet.APOLLO & 1) != 0;
+		for (Figure figure : opponent.getFigures()) {
+			if (board.getDestinations(figure, canMoveUp) > 0
+					|| hermes && board.getFreeCells(figure.getLevel()) > 0) {
+				return true;
+			}
+			int maxLevel = canMoveUp ? figure.getLevel() : figure.getLevel() - 1;
+			for (Figure other : getActivePlayer().getFigures()) {
+				if (apollo && other.getLevel() <= maxLevel
+						&& board.isNeighbor(figure.getX(), figure.getY(), other.getX(), other.getY())) {
+					return true;
 				}
 			}
 		}
-		if (!freeCell) {
-			gameOn = false;
-			return;
+		return false;
+	}
+
+	/**
+	 * Checks whether the player who is not in turn can build an element after
+	 * moving in his next turn. Without cuboids he can only build a dome on a free
+	 * tower or draw the atlas card.
+	 * 
+	 * @return false if the opponent surely cant build
+	 */
+	private boolean canOpponentBuild() {
+		boolean atlas = getInactivePlayer().canDrawCard() && (cardset.getRemaining() >> CardSet.ATLAS & 1) != 0;
+		return board.getAvailableCuboids() > 0
+				|| board.getAvailableDomes() > 0 && (atlas || board.getFreeCells(3) > 0);
+	}
+
+	/**
+	 * Records a successful action. Actions that have been taken back cant be
+	 * repeated anymore.
+	 * 
+	 * @param record the record of the action, see {@link UndoRecord}
+	 */
+	private void record(int record) {
+		if (historySize == history.length) {
+			history = Arrays.copyOf(history, 2 * history.length);
 		}
-		if (gameOn) {
-			Terminal.printLine("OK");
+		history[historySize++] = record;
+		redoSize = historySize;
+	}
+
+	/**
+	 * Records a move of the given figure, before it is moved.
+	 */
+	private void recordMove(int type, int state, Figure figure, int toX, int toY) {
+		record(UndoRecord.withMove(UndoRecord.create(type, state, gameOn), getFigureNumber(figure),
+				BitBoard.square(figure.getX(), figure.getY()), BitBoard.square(toX, toY)));
+	}
+
+	/**
+	 * Takes back the last successful action without printing anything. Restores
+	 * the board, the figures, the players, the card set and the turn in constant
+	 * time.
+	 * 
+	 * @return false if there is no action to take back
+	 */
+	public boolean undo() {
+		if (historySize == 0) {
+			return false;
+		}
+		int record = history[--historySize];
+		int from = UndoRecord.getFrom(record);
+		int target = UndoRecord.getTarget(record);
+		Figure figure = getFigure(UndoRecord.getFigure(record));
+		switch (UndoRecord.getType(record)) {
+		case UndoRecord.DRAW:
+			getActivePlayer().decreaseDrawnCards();
+			cardset.add(target);
+			break;
+		case UndoRecord.MOVE:
+			board.relocateFigure(figure, BitBoard.getX(from), BitBoard.getY(from));
+			placeFigure(figure, from);
+			break;
+		case UndoRecord.APOLLO:
+			Figure opponent = board.moveFigureApollo(figure, BitBoard.getX(from), BitBoard.getY(from));
+			placeFigure(figure, from);
+			placeFigure(opponent, target);
+			break;
+		case UndoRecord.BUILD:
+			board.removeTopElement(BitBoard.getX(target), BitBoard.getY(target));
+			break;
+		default:
+			p1.changeTurn();
+			p2.changeTurn();
+		}
+		turn.setState(UndoRecord.getTurnState(record));
+		gameOn = UndoRecord.isGameOn(record);
+		return true;
+	}
+
+	/**
+	 * Repeats the last action that has been taken back, printing the same output
+	 * as the action itself.
+	 * 
+	 * @return false if there is no action to repeat
+	 */
+	public boolean redo() {
+		if (historySize == redoSize) {
+			return false;
+		}
+		int record = history[historySize];
+		int top = redoSize;
+		int target = UndoRecord.getTarget(record);
+		int x = BitBoard.getX(target);
+		int y = BitBoard.getY(target);
+		switch (UndoRecord.getType(record)) {
+		case UndoRecord.DRAW:
+			drawCard(CardSet.getSymbol(target));
+			break;
+		case UndoRecord.MOVE:
+		case UndoRecord.APOLLO:
+			move(getFigure(UndoRecord.getFigure(record)).getName(), x, y);
+			break;
+		case UndoRecord.BUILD:
+			build(UndoRecord.isDome(record) ? new Dome(x, y) : new Cuboid(x, y), x, y);
+			break;
+		case UndoRecord.SURRENDER:
+			surrender();
+			break;
+		default:
+			changeTurns();
+		}
+		redoSize = top;
+		return true;
+	}
+
+	/**
+	 * @return the records of the actions played so far, without the ones taken
+	 *         back, see {@link UndoRecord}
+	 */
+	public int[] getHistory() {
+		return Arrays.copyOf(history, historySize);
+	}
+
+	/**
+	 * @return the number of moves played so far, without the ones taken back
+	 */
+	public int getMoves() {
+		int moves = 0;
+		for (int i = 0; i < historySize; i++) {
+			int type = UndoRecord.getType(history[i]);
+			if (type == UndoRecord.MOVE || type == UndoRecord.APOLLO) {
+				++moves;
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Sets the coordinates and the level of a figure whose move was taken back.
+	 */
+	private void placeFigure(Figure figure, int square) {
+		figure.move(BitBoard.getX(square), BitBoard.getY(square));
+		figure.setLevel(board.getCell(square).getHeight());
+	}
+
+	/**
+	 * @param number the number of a figure, 0 and 1 for the figures of the first
+	 *               player, 2 and 3 for those of the second player
+	 * @return the figure
+	 */
+	private Figure getFigure(int number) {
+		return (number < 2 ? p1 : p2).getFigures()[number & 1];
+	}
+
+	private int getFigureNumber(Figure figure) {
+		for (int number = 0; number < 4; number++) {
+			if (getFigure(number) == figure) {
+				return number;
+			}
+		}
+		return 0;
+	}
+
+	private static int getCardNumber(String cardSymbol) {
+		for (int card = 0; card < CardSet.size(); card++) {
+			if (CardSet.getSymbol(card).equals(cardSymbol)) {
+				return card;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the hash key of the current position. It combines the key of the
+	 * board with the player in turn, the progress of the turn and the cards.
+	 * 
+	 * @return the hash key
+	 */
+	public long getKey() {
+		return board.getKey() ^ Zobrist.state(p1.isTurn() ? 0 : 1, turn.getCanMoveUp(), cardset.getRemaining(),
+				p1.getDrawnCards(), p2.getDrawnCards(), turn.getCard(), turn.getMoved(), turn.getBuilt(),
+				turn.isAthenaMovedUp());
+	}
+
+	public Board getBoard() {
+		return board;
+	}
+
+	public Turn getTurn() {
+		return turn;
+	}
+
+	public CardSet getCardSet() {
+		return cardset;
+	}
+
+	public Player getFirstPlayer() {
+		return p1;
+	}
+
+	public Player getSecondPlayer() {
+		return p2;
+	}
+
+	public boolean isGameOn() {
+		return gameOn;
+	}
+
+	/**
+	 * Executes the given command like it was entered on the terminal and prints
+	 * its output.
+	 * 
+	 * @param command the command and its arguments separated by a space
+	 * @return false if the command quits the game
+	 */
+	public boolean execute(String command) {
+		commandLine.reset(command);
+		for (int i = 0; i < COMMAND_NAMES.length; i++) {
+			if (commandLine.isCommand(COMMAND_NAMES[i])) {
+				return COMMANDS[i].execute(this, commandLine);
+			}
+		}
+		output.printError("unknown command.");
+		return true;
+	}
+
+	private boolean executeDrawCard(CommandLine line) {
+		String cardSymbol = null;
+		for (int card = 0; card < CardSet.size() && cardSymbol == null; card++) {
+			if (line.argumentEquals(CardSet.getSymbol(card))) {
+				cardSymbol = CardSet.getSymbol(card);
+			}
 		}
+		drawCard(cardSymbol != null ? cardSymbol : line.getArgument());
+		return true;
+	}
+
+	private boolean executeMove(CommandLine line) {
+		String figureName = null;
+		for (Figure figure : getActivePlayer().getFigures()) {
+			if (line.fieldEquals(0, figure.getName())) {
+				figureName = figure.getName();
+			}
+		}
+		if (figureName == null) {
+			figureName = line.getField(0);
+		}
+		int x = line.getInt(1);
+		int y = line.getInt(2);
+		move(figureName, x, y);
+		return true;
+	}
+
+	private boolean executeBuild(CommandLine line) {
+		boolean cuboid = line.fieldEquals(0, "C");
+		boolean dome = line.fieldEquals(0, "D");
+		int x = line.getInt(1);
+		int y = line.getInt(2);
+		if (cuboid) {
+			build(new Cuboid(x, y), x, y);
+		} else if (dome) {
+			build(new Dome(x, y), x, y);
+		} else {
+			output.printError("please choose a valid type");
+		}
+		return true;
+	}
+
+	private boolean executePrint(CommandLine line) {
+		output.printLine(board.print());
+		return true;
+	}
+
+	private boolean executeCellprint(CommandLine line) {
+		int x = line.getInt(0);
+		int y = line.getInt(1);
+		output.printLine(board.getCells()[x][y].cellprint());
+		return true;
+	}
+
+	private boolean executeSurrender(CommandLine line) {
+		surrender();
+		return true;
+	}
+
+	/**
+	 * Ends the game, the player in turn gives up and the opponent wins.
+	 */
+	public void surrender() {
+		record(UndoRecord.create(UndoRecord.SURRENDER, turn.getState(), gameOn));
+		p1.changeTurn();
+		p2.changeTurn();
+		gameOn = false;
+	}
+
+	private boolean executeBag(CommandLine line) {
+		output.printLine(board.bag());
+		return true;
+	}
+
+	private boolean executeTurn(CommandLine line) {
+		changeTurns();
+		return true;
+	}
+
+	private boolean executeUndo(CommandLine line) {
+		if (undo()) {
+			output.printLine("OK");
+		} else {
+			output.printError("there is no action to take back.");
+		}
+		return true;
+	}
+
+	private boolean executeRedo(CommandLine line) {
+		if (!redo()) {
+			output.printError("there is no action to repeat.");
+		}
+		return true;
+	}
+
+	private boolean executeQuit(CommandLine line) {
+		return false;
+	}
+
+	public OutputSink getOutput() {
+		return output;
 	}
 
 	public static void main(String[] args) {
 		Game game = new Game();
-		if (args.length == 4) {
-			game.initializePlayers(args[0], args[1], args[2], args[3]);
-			while (game.gameOn) {
-				String[] parsedCommand = Terminal.readLine().split(" ");
-				if (parsedCommand[0].equals("draw-card")) {
-					game.drawCard(parsedCommand[1]);
-				} else if (parsedCommand[0].equals("move")) {
-					String[] values = parsedCommand[1].split(";");
-					int x = Integer.parseInt(values[1]);
-					int y = Integer.parseInt(values[2]);
-					game.move(values[0], x, y);
-				} else if (parsedCommand[0].equals("build")) {
-					game.build(parsedCommand);
-				} else if (parsedCommand[0].equals("print")) {
-					Terminal.printLine(game.board.print());
-				} else if (parsedCommand[0].equals("cellprint")) {
-					String[] values = parsedCommand[1].split(";");
-					int x = Integer.parseInt(values[0]);
-					int y = Integer.parseInt(values[1]);
-					Terminal.printLine(game.board.getCells()[x][y].cellprint());
-				} else if (parsedCommand[0].equals("surrender")) {
-					game.p1.changeTurn();
-					game.p2.changeTurn();
-					game.gameOn = false;
-				} else if (parsedCommand[0].equals("bag")) {
-					Terminal.printLine(game.board.bag());
-				} else if (parsedCommand[0].equals("turn")) {
-					game.changeTurns();
-				} else if (parsedCommand[0].equals("quit")) {
-					return;
-				} else {
-					Terminal.printError("unknown command.");
+		OutputSink output = game.output;
+		LineReader input = new LineReader();
+		try {
+			if (args.length == 4) {
+				game.initializePlayers(args[0], args[1], args[2], args[3]);
+				while (game.gameOn) {
+					if (!input.isLinePending()) {
+						output.flush();
+					}
+					String command = input.readLine();
+					if (command == null || !game.execute(command)) {
+						return;
+					}
 				}
+				output.printLine(game.getActivePlayer().getName() + " wins");
+			} else {
+				output.printError("please enter two figures and their positions for each player.");
 			}
-			Terminal.printLine(game.getActivePlayer().getName() + " wins");
-		} else {
-			Terminal.printError("please enter two figures and their positions for each player.");
+		} finally {
+			output.flush();
 		}
 	}
 }
@@ -0,0 +1,192 @@
+package game;
+
+import data.BitBoard;
+
+/**
+ * An immutable snapshot of the complete state of a game, packed into two longs
+ * and an int, which can be shared between threads and used as a key. The
+ * first long holds the cells with at least one and two cuboids (25 bits each),
+ * the player in turn, the state of the turn as in {@link Turn#getState()} and
+ * the winner plus one. The second long holds the cells with three cuboids and
+ * with a dome, the number of cards each player has drawn and the mask of the
+ * remaining cards. The int holds the cells of the four figures, 5 bits each,
+ * numbered as in {@link BitBoard}. The names of the figures are not part of the
+ * state.
+ *
+ */
+public final class GameState {
+	private static final int SIDE_OFFSET = 50;
+	private static final int TURN_OFFSET = 51;
+	private static final int WINNER_OFFSET = 60;
+	private static final int DRAWN_OFFSET = 50;
+	private static final int CARDS_OFFSET = 54;
+	private static final long MASK = BitBoard.FULL;
+	private final long low;
+	private final long high;
+	private final int workers;
+
+	/**
+	 * Creates the snapshot of the given position.
+	 *
+	 * @param position the position
+	 */
+	public GameState(Position position) {
+		BitBoard board = position.getBoard();
+		int turnState = position.getTurnState();
+		low = board.getLevelMask(1) | (long) board.getLevelMask(2) << 25 | (long) position.getSide() << SIDE_OFFSET
+				| (long) turnState << TURN_OFFSET | (long) (position.getWinner() + 1) << WINNER_OFFSET;
+		high = board.getLevelMask(3) | (long) board.getDomes() << 25
+				| (long) (position.getDrawnCards(0) | position.getDrawnCards(1) << 2) << DRAWN_OFFSET
+				| (long) position.getCards() << CARDS_OFFSET;
+		workers = board.getWorker(0) | board.getWorker(1) << 5 | board.getWorker(2) << 10 | board.getWorker(3) << 15;
+	}
+
+	/**
+	 * Creates the snapshot of the given game, including the progress of the
+	 * current turn.
+	 *
+	 * @param game a game whose players have been initialized
+	 */
+	public GameState(Game game) {
+		this(new Position(game));
+	}
+
+	/**
+	 * Creates a position with this state and without names of the figures. Use
+	 * {@link Position#load(GameState)} to reuse a position and keep its names.
+	 *
+	 * @return a new position
+	 */
+	public Position toPosition() {
+		Position position = new Position();
+		position.load(this);
+		return position;
+	}
+
+	/**
+	 * Creates a game with this state which prints nothing. Its undo history is
+	 * empty.
+	 *
+	 * @param names the names of the four figures, numbered as in {@link BitBoard}
+	 * @return a new game
+	 */
+	public Game toGame(String... names) {
+		return toGame(NullSink.INSTANCE, names);
+	}
+
+	/**
+	 * Creates a game with this state. Its undo history is empty.
+	 *
+	 * @param output the sink of the output of the game
+	 * @param names  the names of the four figures, numbered as in {@link BitBoard}
+	 * @return a new game
+	 */
+	public Game toGame(OutputSink output, String... names) {
+		return new Game(this, output, names);
+	}
+
+	/**
+	 * @param height the number of cuboids, from 1 to 3
+	 * @return a mask of the cells with at least the given number of cuboids
+	 */
+	public int getLevelMask(int height) {
+		switch (height) {
+		case 1:
+			return (int) (low & MASK);
+		case 2:
+			return (int) (low >>> 25 & MASK);
+		default:
+			return (int) (high & MASK);
+		}
+	}
+
+	public int getDomes() {
+		return (int) (high >>> 25 & MASK);
+	}
+
+	/**
+	 * @param worker the number of the figure
+	 * @return the cell of the figure
+	 */
+	public int getWorker(int worker) {
+		return workers >>> (5 * worker) & 31;
+	}
+
+	/**
+	 * @return the cells of the four figures, 5 bits each
+	 */
+	public int getWorkers() {
+		return workers;
+	}
+
+	public int getSide() {
+		return (int) (low >>> SIDE_OFFSET & 1);
+	}
+
+	/**
+	 * @return the state of the turn, packed by {@link Turn#pack}
+	 */
+	public int getTurnState() {
+		return (int) (low >>> TURN_OFFSET & 511);
+	}
+
+	public int getMoved() {
+		return Turn.getMoved(getTurnState());
+	}
+
+	public int getBuilt() {
+		return Turn.getBuilt(getTurnState());
+	}
+
+	public int getCard() {
+		return Turn.getCard(getTurnState());
+	}
+
+	public boolean getCanMoveUp() {
+		return Turn.getCanMoveUp(getTurnState());
+	}
+
+	public boolean isAthenaMovedUp() {
+		return Turn.isAthenaMovedUp(getTurnState());
+	}
+
+	/**
+	 * @return the side which has won the game or -1 if the game is still on
+	 */
+	public int getWinner() {
+		return (int) (low >>> WINNER_OFFSET & 3) - 1;
+	}
+
+	/**
+	 * @param side 0 for the first and 1 for the second player
+	 * @return the number of cards the player has drawn
+	 */
+	public int getDrawnCards(int side) {
+		return (int) (high >>> (DRAWN_OFFSET + 2 * side) & 3);
+	}
+
+	/**
+	 * @return a mask of the cards which are still in the card set
+	 */
+	public int getCards() {
+		return (int) (high >>> CARDS_OFFSET & 63);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		} else if (!(other instanceof GameState)) {
+			return false;
+		}
+		GameState state = (GameState) other;
+		return low == state.low && high == state.high && workers == state.workers;
+	}
+
+	@Override
+	public int hashCode() {
+		long hash = low * 0x9E3779B97F4A7C15L ^ high * 0xC2B2AE3D27D4EB4FL ^ workers * 0x165667B19E3779F9L;
+		return (int) (hash ^ hash >>> 32);
+	}
+
+}
@@ -0,0 +1,91 @@
+package game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+
+/**
+ * Reads the lines of the standard input like
+ * {@link edu.kit.informatik.Terminal#readLine()} and tells whether a complete
+ * line has already arrived, so the output of a game can be written once for a
+ * whole batch of commands. A line is terminated by a line feed, a carriage
+ * return or a carriage return followed by a line feed. The characters are read
+ * ahead only as far as they are available without waiting.
+ *
+ */
+class LineReader {
+	private BufferedReader in;
+	/**
+	 * contains the complete lines read ahead
+	 */
+	private ArrayDeque<String> lines;
+	/**
+	 * contains the characters of the line that has not been terminated yet
+	 */
+	private StringBuilder partial;
+	/**
+	 * true if the last character was a carriage return, so a line feed
+	 * following it doesnt end another line
+	 */
+	private boolean afterReturn;
+	private boolean end;
+
+	LineReader() {
+		in = new BufferedReader(new InputStreamReader(System.in));
+		lines = new ArrayDeque<String>();
+		partial = new StringBuilder();
+	}
+
+	/**
+	 * @return true if {@link #readLine()} returns without waiting, because a
+	 *         complete line or the end of the input has been read
+	 */
+	boolean isLinePending() {
+		try {
+			while (lines.isEmpty() && !end && in.ready()) {
+				read();
+			}
+		} catch (IOException e) {
+			return false;
+		}
+		return !lines.isEmpty() || end;
+	}
+
+	/**
+	 * Reads a line of text, waiting until it is complete.
+	 *
+	 * @return the line without its terminating characters, or null if the end of
+	 *         the input has been reached
+	 */
+	String readLine() {
+		try {
+			while (lines.isEmpty() && !end) {
+				read();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return lines.poll();
+	}
+
+	private void read() throws IOException {
+		int c = in.read();
+		boolean lineFeedAfterReturn = afterReturn && c == '\n';
+		afterReturn = c == '\r';
+		if (c < 0) {
+			end = true;
+			if (partial.length() > 0) {
+				lines.add(partial.toString());
+			}
+		} else if (c == '\n' || c == '\r') {
+			if (!lineFeedAfterReturn) {
+				lines.add(partial.toString());
+				partial.setLength(0);
+			}
+		} else {
+			partial.append((char) c);
+		}
+	}
+}
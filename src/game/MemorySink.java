@@ -0,0 +1,34 @@
+package game;
+
+/**
+ * Keeps the printed lines in memory, so the output of a game can be inspected
+ * and compared.
+ *
+ */
+public class MemorySink implements OutputSink {
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	private StringBuilder output;
+
+	public MemorySink() {
+		output = new StringBuilder();
+	}
+
+	@Override
+	public void printLine(Object object) {
+		output.append(object).append(LINE_SEPARATOR);
+	}
+
+	/**
+	 * @return everything printed since the sink was created or cleared
+	 */
+	public String getOutput() {
+		return output.toString();
+	}
+
+	/**
+	 * Forgets everything printed so far.
+	 */
+	public void clear() {
+		output.setLength(0);
+	}
+}
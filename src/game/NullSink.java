@@ -0,0 +1,23 @@
+package game;
+
+/**
+ * Discards all output, for games played by engines, scripts and benchmarks.
+ *
+ */
+public final class NullSink implements OutputSink {
+	/**
+	 * the only instance, since the sink has no state
+	 */
+	public static final NullSink INSTANCE = new NullSink();
+
+	private NullSink() {
+	}
+
+	@Override
+	public void printLine(Object object) {
+	}
+
+	@Override
+	public void printError(String message) {
+	}
+}
@@ -0,0 +1,33 @@
+package game;
+
+/**
+ * Receives the output of a {@link Game}. The lines are formatted like the
+ * methods of {@link edu.kit.informatik.Terminal} format them, but a sink
+ * decides where and when they are written.
+ *
+ */
+public interface OutputSink {
+
+	/**
+	 * Prints the string representation of the given object and terminates the
+	 * line.
+	 *
+	 * @param object the object to be printed
+	 */
+	void printLine(Object object);
+
+	/**
+	 * Prints the given error message with the prefix "Error, ".
+	 *
+	 * @param message the error message to be printed
+	 */
+	default void printError(String message) {
+		printLine("Error, " + message);
+	}
+
+	/**
+	 * Writes the lines that have been printed but not yet written.
+	 */
+	default void flush() {
+	}
+}
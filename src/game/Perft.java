@@ -0,0 +1,340 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import data.BitBoard;
+import data.CardSet;
+import data.Player;
+import edu.kit.informatik.Terminal;
+import elements.Figure;
+
+/**
+ * Counts the positions that can be reached from a starting setup by playing a
+ * given number of complete turns. The counts are broken down by the first turn
+ * and measure how fast the rules are applied. The check mode counts the same
+ * tree by trying every command on {@link Game} and compares both counts.
+ *
+ * <p>
+ * Usage: {@code Perft <depth> <figure1> <figure2> <figure3> <figure4> [parallel|check]},
+ * where the figures have the format of {@link Game#initializePlayers}.
+ *
+ */
+public class Perft {
+	private static final int MAX_DEPTH = 16;
+	private TurnGenerator generator;
+	/**
+	 * contains the turns and the position of each ply
+	 */
+	private int[][] turns;
+	private Position[] positions;
+
+	public Perft() {
+		generator = new TurnGenerator();
+		turns = new int[MAX_DEPTH][];
+		positions = new Position[MAX_DEPTH];
+		for (int i = 0; i < MAX_DEPTH; i++) {
+			positions[i] = new Position();
+		}
+	}
+
+	/**
+	 * Counts the positions reached after the given number of turns. A turn that
+	 * ends the game is only counted if it is the last turn.
+	 *
+	 * @param position the starting position
+	 * @param depth    the number of turns, at most {@link #MAX_DEPTH}
+	 * @return the number of positions
+	 */
+	public long perft(Position position, int depth) {
+		positions[0].copyFrom(position);
+		return perft(0, depth);
+	}
+
+	private long perft(int ply, int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		if (turns[ply] == null) {
+			turns[ply] = new int[TurnGenerator.MAX_TURNS];
+		}
+		int count = generator.generate(positions[ply], turns[ply]);
+		if (depth == 1) {
+			return count;
+		}
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			Position next = positions[ply + 1];
+			next.copyFrom(positions[ply]);
+			next.make(turns[ply][i]);
+			nodes += perft(ply + 1, depth - 1);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts the positions reached from each turn of the given position after the
+	 * given number of turns, including the first one.
+	 *
+	 * @param position the starting position
+	 * @param depth    the number of turns, at least 1
+	 * @param parallel true to count the turns on a fork-join pool
+	 * @return the count of each first turn, keyed by its commands
+	 */
+	public static Map<String, Long> divide(Position position, int depth, boolean parallel) {
+		int[] rootTurns = new int[TurnGenerator.MAX_TURNS];
+		int count = new TurnGenerator().generate(position, rootTurns);
+		List<PerftTask> tasks = new ArrayList<PerftTask>();
+		for (int i = 0; i < count; i++) {
+			Position next = new Position();
+			next.copyFrom(position);
+			next.make(rootTurns[i]);
+			tasks.add(new PerftTask(next, depth - 1));
+		}
+		if (parallel) {
+			ForkJoinPool.commonPool().invoke(new RecursiveTask<Void>() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected Void compute() {
+					invokeAll(tasks);
+					return null;
+				}
+			});
+		}
+		Map<String, Long> result = new LinkedHashMap<String, Long>();
+		for (int i = 0; i < count; i++) {
+			long nodes = parallel ? tasks.get(i).join() : tasks.get(i).compute();
+			result.put(String.join(", ", TurnCode.toCommands(rootTurns[i], position)), nodes);
+		}
+		return result;
+	}
+
+	/**
+	 * Counts the positions below one first turn, using a counter of the thread.
+	 */
+	private static class PerftTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+		private static final ThreadLocal<Perft> PERFT = ThreadLocal.withInitial(Perft::new);
+		private Position position;
+		private int depth;
+
+		PerftTask(Position position, int depth) {
+			this.position = position;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute() {
+			return PERFT.get().perft(position, depth);
+		}
+	}
+
+	/**
+	 * Counts the same tree as {@link #divide} by sending every possible command to
+	 * a {@link Game}. A command changed the game if its key changed, it is then
+	 * followed and taken back with {@link Game#undo()}. The first turns are
+	 * collected this way, the turns below each of them are counted on a game of
+	 * their own on a fork-join pool. This is slower but uses only the rules of
+	 * {@link Game}.
+	 *
+	 * @param setup the four figures of {@link Game#initializePlayers}
+	 * @param depth the number of turns, at least 1
+	 * @return the count of each first turn, keyed by its commands
+	 */
+	public static Map<String, Long> divideWithGame(String[] setup, int depth) {
+		Game game = createGame(setup);
+		List<String[]> candidates = getCandidates(game);
+		List<List<String>> firstTurns = new ArrayList<List<String>>();
+		collectTurns(game, candidates, new ArrayList<String>(), firstTurns);
+		List<GameTask> tasks = new ArrayList<GameTask>();
+		for (List<String> turn : firstTurns) {
+			tasks.add(new GameTask(setup, candidates, turn, depth - 1));
+		}
+		ForkJoinPool.commonPool().invoke(new RecursiveTask<Void>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Void compute() {
+				invokeAll(tasks);
+				return null;
+			}
+		});
+		Map<String, Long> result = new LinkedHashMap<String, Long>();
+		for (int i = 0; i < tasks.size(); i++) {
+			result.put(String.join(", ", firstTurns.get(i)), tasks.get(i).join());
+		}
+		return result;
+	}
+
+	private static Game createGame(String[] setup) {
+		Game game = new Game(NullSink.INSTANCE);
+		game.initializePlayers(setup[0], setup[1], setup[2], setup[3]);
+		return game;
+	}
+
+	/**
+	 * Plays one first turn on a game of its own and counts the turns below it.
+	 */
+	private static class GameTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+		private String[] setup;
+		private List<String[]> candidates;
+		private List<String> turn;
+		private int depth;
+
+		GameTask(String[] setup, List<String[]> candidates, List<String> turn, int depth) {
+			this.setup = setup;
+			this.candidates = candidates;
+			this.turn = turn;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute() {
+			Game game = createGame(setup);
+			for (String command : turn) {
+				game.execute(command);
+			}
+			return depth == 0 ? 1 : game.isGameOn() ? countWithGame(game, candidates, depth) : 0;
+		}
+	}
+
+	/**
+	 * Collects the commands of every turn that can be completed in the game.
+	 *
+	 * @param game       the game, it is the same after the call
+	 * @param candidates the commands to try for each player
+	 * @param current    the commands of the current turn
+	 * @param turns      receives the commands of each complete turn
+	 */
+	private static void collectTurns(Game game, List<String[]> candidates, List<String> current,
+			List<List<String>> turns) {
+		if (!game.isGameOn()) {
+			turns.add(new ArrayList<String>(current));
+			return;
+		}
+		long key = game.getKey();
+		for (String command : candidates.get(game.getActivePlayer() == game.getFirstPlayer() ? 0 : 1)) {
+			game.execute(command);
+			if (game.getKey() != key) {
+				current.add(command);
+				if (command.equals("turn")) {
+					turns.add(new ArrayList<String>(current));
+				} else {
+					collectTurns(game, candidates, current, turns);
+				}
+				current.remove(current.size() - 1);
+				game.undo();
+			}
+		}
+	}
+
+	/**
+	 * Counts the positions reached after the given number of turns by trying
+	 * every command on the game and following the ones which change it.
+	 *
+	 * @param game       the game, it is the same after the call
+	 * @param candidates the commands to try for each player
+	 * @param depth      the remaining number of turns, including the current one
+	 * @return the number of positions
+	 */
+	private static long countWithGame(Game game, List<String[]> candidates, int depth) {
+		long nodes = 0;
+		long key = game.getKey();
+		for (String command : candidates.get(game.getActivePlayer() == game.getFirstPlayer() ? 0 : 1)) {
+			game.execute(command);
+			if (game.getKey() != key) {
+				if (!game.isGameOn()) {
+					nodes += depth == 1 ? 1 : 0;
+				} else if (!command.equals("turn")) {
+					nodes += countWithGame(game, candidates, depth);
+				} else {
+					nodes += depth == 1 ? 1 : countWithGame(game, candidates, depth - 1);
+				}
+				game.undo();
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * @param game a game whose players have been initialized
+	 * @return every command that could change the game, for the first and the
+	 *         second player
+	 */
+	private static List<String[]> getCandidates(Game game) {
+		List<String[]> result = new ArrayList<String[]>();
+		for (Player player : new Player[] { game.getFirstPlayer(), game.getSecondPlayer() }) {
+			List<String> candidates = new ArrayList<String>();
+			for (int card = 0; card < CardSet.size(); card++) {
+				candidates.add("draw-card " + CardSet.getSymbol(card));
+			}
+			for (Figure figure : player.getFigures()) {
+				for (int x = 0; x < BitBoard.SIZE; x++) {
+					for (int y = 0; y < BitBoard.SIZE; y++) {
+						candidates.add("move " + figure.getName() + ";" + x + ";" + y);
+					}
+				}
+			}
+			for (String type : new String[] { "C", "D" }) {
+				for (int x = 0; x < BitBoard.SIZE; x++) {
+					for (int y = 0; y < BitBoard.SIZE; y++) {
+						candidates.add("build " + type + ";" + x + ";" + y);
+					}
+				}
+			}
+			candidates.add("turn");
+			result.add(candidates.toArray(new String[0]));
+		}
+		return result;
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 5) {
+			Terminal.printError("please enter a depth and two figures and their positions for each player.");
+			return;
+		}
+		int depth = Integer.parseInt(args[0]);
+		String[] setup = { args[1], args[2], args[3], args[4] };
+		String mode = args.length > 5 ? args[5] : "";
+		Game game = new Game();
+		game.initializePlayers(setup[0], setup[1], setup[2], setup[3]);
+		game.getOutput().flush();
+		Position position = new Position(game);
+		long start = System.nanoTime();
+		Map<String, Long> counts = divide(position, depth, mode.equals("parallel"));
+		long nanos = System.nanoTime() - start;
+		long nodes = 0;
+		for (Map.Entry<String, Long> entry : counts.entrySet()) {
+			Terminal.printLine(entry.getKey() + ": " + entry.getValue());
+			nodes += entry.getValue();
+		}
+		Terminal.printLine("nodes: " + nodes);
+		Terminal.printLine("time: " + nanos / 1000000 + " ms");
+		Terminal.printLine("nodes per second: " + (long) (nodes * 1e9 / Math.max(nanos, 1)));
+		if (mode.equals("check")) {
+			Map<String, Long> expected = divideWithGame(setup, depth);
+			int differences = 0;
+			for (Map.Entry<String, Long> entry : expected.entrySet()) {
+				if (!entry.getValue().equals(counts.get(entry.getKey()))) {
+					Terminal.printError(entry.getKey() + ": expected " + entry.getValue() + " but counted "
+							+ counts.get(entry.getKey()));
+					++differences;
+				}
+			}
+			for (String turn : counts.keySet()) {
+				if (!expected.containsKey(turn)) {
+					Terminal.printError(turn + ": not a legal turn of the game");
+					++differences;
+				}
+			}
+			Terminal.printLine(differences == 0 ? "check passed" : differences + " differences");
+		}
+	}
+
+}
@@ -0,0 +1,484 @@
+package game;
+
+import data.BitBoard;
+import data.CardSet;
+import data.Player;
+import data.Symmetry;
+import data.Zobrist;
+import elements.Figure;
+
+/**
+ * Represents the state of a game based on a {@link BitBoard}. It applies the
+ * same rules as {@link Game} without printing anything and is meant to be used
+ * by engines which have to look at many positions. The figures are numbered as
+ * in the bit board, the figures 0 and 1 belong to the first player (side 0),
+ * the figures 2 and 3 to the second player (side 1).
+ *
+ */
+public class Position {
+	/**
+	 * the cuboids, domes and figures on the board
+	 */
+	private BitBoard board;
+	/**
+	 * the player in turn, 0 for the first and 1 for the second player
+	 */
+	private int side;
+	/**
+	 * indicates whether the player in turn can move his figures to a higher level
+	 */
+	private boolean canMoveUp;
+	/**
+	 * a mask of the cards which are still in the card set
+	 */
+	private int cards;
+	/**
+	 * the number of cards each player has drawn
+	 */
+	private int[] drawnCards;
+	/**
+	 * the card drawn in the current turn or -1
+	 */
+	private int card;
+	/**
+	 * the number of moves and builds in the current turn
+	 */
+	private int moved;
+	private int built;
+	/**
+	 * indicates whether a figure has been moved up with the athena card in the
+	 * current turn
+	 */
+	private boolean athenaMovedUp;
+	/**
+	 * the side which has won the game or -1 if the game is still on
+	 */
+	private int winner;
+	/**
+	 * the names of the four figures
+	 */
+	private String[] names;
+	/**
+	 * the part of the hash key which does not depend on the board
+	 */
+	private long key;
+
+	public Position() {
+		board = new BitBoard();
+		drawnCards = new int[2];
+		canMoveUp = true;
+		cards = (1 << CardSet.size()) - 1;
+		card = -1;
+		winner = -1;
+		names = new String[4];
+		key = Zobrist.state(side, canMoveUp, cards, 0, 0, card, moved, built, athenaMovedUp);
+	}
+
+	/**
+	 * Creates the position of the given game, including the progress of the
+	 * current turn.
+	 *
+	 * @param game a game whose players have been initialized
+	 */
+	public Position(Game game) {
+		this();
+		Player first = game.getFirstPlayer();
+		Player second = game.getSecondPlayer();
+		board = new BitBoard(game.getBoard(), first, second);
+		side = game.getActivePlayer() == first ? 0 : 1;
+		drawnCards[0] = first.getDrawnCards();
+		drawnCards[1] = second.getDrawnCards();
+		cards = game.getCardSet().getRemaining();
+		Turn turn = game.getTurn();
+		canMoveUp = turn.getCanMoveUp();
+		card = turn.getCard();
+		moved = turn.getMoved();
+		built = turn.getBuilt();
+		athenaMovedUp = turn.isAthenaMovedUp();
+		winner = game.isGameOn() ? -1 : side;
+		Figure[] figures = first.getFigures();
+		names[0] = figures[0].getName();
+		names[1] = figures[1].getName();
+		figures = second.getFigures();
+		names[2] = figures[0].getName();
+		names[3] = figures[1].getName();
+		key = Zobrist.state(side, canMoveUp, cards, drawnCards[0], drawnCards[1], card, moved, built,
+				athenaMovedUp);
+	}
+
+	/**
+	 * Copies the given position into this one.
+	 *
+	 * @param other the position to copy
+	 */
+	public void copyFrom(Position other) {
+		board.copyFrom(other.board);
+		side = other.side;
+		canMoveUp = other.canMoveUp;
+		cards = other.cards;
+		drawnCards[0] = other.drawnCards[0];
+		drawnCards[1] = other.drawnCards[1];
+		card = other.card;
+		moved = other.moved;
+		built = other.built;
+		athenaMovedUp = other.athenaMovedUp;
+		winner = other.winner;
+		names = other.names;
+		key = other.key;
+	}
+
+	/**
+	 * Copies the given position transformed by the given symmetry into this one.
+	 * The turns of the copy are the turns of the given position transformed by
+	 * {@link TurnCode#transform(int, int)}.
+	 *
+	 * @param other    the position to copy
+	 * @param symmetry the number of the {@link Symmetry}
+	 */
+	public void copyFrom(Position other, int symmetry) {
+		copyFrom(other);
+		board.copyFrom(other.board, symmetry);
+	}
+
+	/**
+	 * Sets this position to the given state. The names of the figures are kept.
+	 * 
+	 * @param state the state
+	 */
+	public void load(GameState state) {
+		board.set(state.getLevelMask(1), state.getLevelMask(2), state.getLevelMask(3), state.getDomes(),
+				state.getWorkers());
+		side = state.getSide();
+		canMoveUp = state.getCanMoveUp();
+		cards = state.getCards();
+		drawnCards[0] = state.getDrawnCards(0);
+		drawnCards[1] = state.getDrawnCards(1);
+		card = state.getCard();
+		moved = state.getMoved();
+		built = state.getBuilt();
+		athenaMovedUp = state.isAthenaMovedUp();
+		winner = state.getWinner();
+		key = Zobrist.state(side, canMoveUp, cards, drawnCards[0], drawnCards[1], card, moved, built,
+				athenaMovedUp);
+	}
+
+	/**
+	 * @return true if the player in turn can draw a card
+	 */
+	public boolean canDrawCard() {
+		return card < 0 && moved == 0 && built == 0 && drawnCards[side] < Player.MAX_CARDS && cards != 0;
+	}
+
+	/**
+	 * @return true if the player in turn can move one of his figures
+	 */
+	public boolean canMove() {
+		return winner < 0 && built == 0 && moved < (card == CardSet.ARTEMIS ? 2 : 1);
+	}
+
+	/**
+	 * @return true if the player in turn can build an element
+	 */
+	public boolean canBuild() {
+		return winner < 0 && moved > 0 && built < (card == CardSet.DEMETER ? 2 : 1);
+	}
+
+	/**
+	 * @return true if the player in turn can end his turn
+	 */
+	public boolean canEndTurn() {
+		return winner < 0 && moved > 0 && built > 0;
+	}
+
+	/**
+	 * Returns the mask of the cells the given figure of the player in turn can be
+	 * moved to. Follows the checks of {@link Game#move(String, int, int)}.
+	 *
+	 * @param worker the number of the figure
+	 * @return a mask of the destination cells
+	 */
+	public int getMoveTargets(int worker) {
+		if (!canMove() || worker >> 1 != side) {
+			return 0;
+		}
+		int from = board.getWorker(worker);
+		int level = board.getHeight(from);
+		int tooHigh = board.getLevelMask(canMoveUp ? level + 2 : level + 1);
+		int free = ~board.getBlocked();
+		int targets = BitBoard.getNeighbors(from) & free & ~tooHigh;
+		if (card == CardSet.HERMES) {
+			targets |= board.getLevelMask(level) & ~board.getLevelMask(level + 1) & free;
+		} else if (card == CardSet.APOLLO) {
+			int opponentTooHigh = board.getLevelMask(canMoveUp ? level + 1 : level);
+			targets |= BitBoard.getNeighbors(from) & board.getWorkers(side ^ 1) & ~opponentTooHigh;
+		}
+		return targets & BitBoard.FULL;
+	}
+
+	/**
+	 * Returns the mask of the cells the player in turn can build a cuboid or a
+	 * dome on. Follows the checks of {@link Game#build(String[])}.
+	 *
+	 * @param dome true for domes, false for cuboids
+	 * @return a mask of cells
+	 */
+	public int getBuildTargets(boolean dome) {
+		if (!canBuild()) {
+			return 0;
+		}
+		int free = ~board.getBlocked() & BitBoard.FULL;
+		if (!dome) {
+			return board.getAvailableCuboids() > 0 ? free & ~board.getLevelMask(3) : 0;
+		} else if (board.getAvailableDomes() == 0) {
+			return 0;
+		} else {
+			return card == CardSet.ATLAS ? free : free & board.getLevelMask(3);
+		}
+	}
+
+	/**
+	 * Draws the given card for the player in turn. The card has to be available.
+	 *
+	 * @param card the card number
+	 */
+	public void drawCard(int card) {
+		key ^= Zobrist.turnCard(this.card) ^ Zobrist.turnCard(card) ^ Zobrist.card(card)
+				^ Zobrist.drawnCards(side, drawnCards[side]) ^ Zobrist.drawnCards(side, drawnCards[side] + 1);
+		this.card = card;
+		cards &= ~(1 << card);
+		++drawnCards[side];
+	}
+
+	/**
+	 * Moves the given figure to the given cell, which has to be one of its move
+	 * targets. An opponent figure on the cell is moved to the initial cell of the
+	 * figure.
+	 *
+	 * @param worker the number of the figure
+	 * @param square the destination cell
+	 */
+	public void move(int worker, int square) {
+		int from = board.getWorker(worker);
+		int level = board.getHeight(from);
+		if (board.isOccupied(square)) {
+			int opponent = getWorkerAt(square);
+			board.moveWorker(worker, square);
+			board.moveWorker(opponent, from);
+		} else {
+			board.moveWorker(worker, square);
+			if (card == CardSet.ATHENA && board.getHeight(square) == level + 1 && !athenaMovedUp) {
+				athenaMovedUp = true;
+				key ^= Zobrist.athenaMovedUp(true);
+			}
+		}
+		key ^= Zobrist.moved(moved) ^ Zobrist.moved(moved + 1);
+		++moved;
+		updateWinner();
+	}
+
+	/**
+	 * Builds a cuboid or a dome on the given cell, which has to be one of the build
+	 * targets.
+	 *
+	 * @param square the cell
+	 * @param dome   true for a dome, false for a cuboid
+	 */
+	public void build(int square, boolean dome) {
+		if (dome) {
+			board.addDome(square);
+		} else {
+			board.addCuboid(square);
+		}
+		key ^= Zobrist.built(built) ^ Zobrist.built(built + 1);
+		++built;
+		updateWinner();
+	}
+
+	/**
+	 * Ends the current turn. The opponent cant move up in his turn if a figure was
+	 * moved up with the athena card.
+	 */
+	public void endTurn() {
+		key ^= Zobrist.side(side) ^ Zobrist.side(side ^ 1) ^ Zobrist.canMoveUp(canMoveUp)
+				^ Zobrist.canMoveUp(!athenaMovedUp) ^ Zobrist.turnCard(card) ^ Zobrist.moved(moved)
+				^ Zobrist.moved(0) ^ Zobrist.built(built) ^ Zobrist.built(0) ^ Zobrist.athenaMovedUp(athenaMovedUp);
+		side ^= 1;
+		canMoveUp = !athenaMovedUp;
+		card = -1;
+		moved = 0;
+		built = 0;
+		athenaMovedUp = false;
+	}
+
+	/**
+	 * Applies all actions of the given turn and ends the turn unless the game is
+	 * over.
+	 *
+	 * @param turn a turn encoded by {@link TurnCode}
+	 */
+	public void make(int turn) {
+		if (TurnCode.getCard(turn) >= 0) {
+			drawCard(TurnCode.getCard(turn));
+		}
+		for (int i = 0; i < TurnCode.getMoveCount(turn) && winner < 0; i++) {
+			move(TurnCode.getMoveWorker(turn, i), TurnCode.getMoveSquare(turn, i));
+		}
+		for (int i = 0; i < TurnCode.getBuildCount(turn) && winner < 0; i++) {
+			build(TurnCode.getBuildSquare(turn, i), TurnCode.isDome(turn, i));
+		}
+		if (winner < 0) {
+			endTurn();
+		}
+	}
+
+	/**
+	 * Checks whether the player in turn has won after an action, like
+	 * {@link Game#updateGameOn()}. He wins if one of his figures stands on the
+	 * third level, if the opponent cant move a figure or cant build in his next
+	 * turn or if no cell is unblocked anymore.
+	 */
+	private void updateWinner() {
+		if ((board.getWorkers(side) & board.getLevelMask(3)) != 0 || !canOpponentMove() || !canOpponentBuild()
+				|| (~board.getBlocked() & BitBoard.FULL) == 0) {
+			winner = side;
+		}
+	}
+
+	/**
+	 * Checks whether the player who is not in turn can move one of his figures in
+	 * his next turn, including the moves of the hermes and apollo cards if he can
+	 * still draw them. Follows {@code Game.canOpponentMove()}.
+	 */
+	private boolean canOpponentMove() {
+		int opponent = side ^ 1;
+		boolean canDraw = drawnCards[opponent] < Player.MAX_CARDS;
+		boolean hermes = canDraw && (cards >> CardSet.HERMES & 1) != 0;
+		boolean apollo = canDraw && (cards >> CardSet.APOLLO & 1) != 0;
+		int free = ~board.getBlocked() & BitBoard.FULL;
+		for (int worker = 2 * opponent; worker < 2 * opponent + 2; worker++) {
+			int from = board.getWorker(worker);
+			int level = board.getHeight(from);
+			int tooHigh = board.getLevelMask(athenaMovedUp ? level + 1 : level + 2);
+			if ((BitBoard.getNeighbors(from) & free & ~tooHigh) != 0
+					|| hermes && (board.getLevelMask(level) & ~board.getLevelMask(level + 1) & free) != 0) {
+				return true;
+			}
+			int opponentTooHigh = board.getLevelMask(athenaMovedUp ? level : level + 1);
+			if (apollo && (BitBoard.getNeighbors(from) & board.getWorkers(side) & ~opponentTooHigh) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the player who is not in turn can build after moving in his
+	 * next turn. Follows {@code Game.canOpponentBuild()}.
+	 */
+	private boolean canOpponentBuild() {
+		int opponent = side ^ 1;
+		boolean atlas = drawnCards[opponent] < Player.MAX_CARDS && (cards >> CardSet.ATLAS & 1) != 0;
+		return board.getAvailableCuboids() > 0 || board.getAvailableDomes() > 0
+				&& (atlas || (board.getLevelMask(3) & ~board.getBlocked()) != 0);
+	}
+
+	/**
+	 * @param square a cell occupied by a figure
+	 * @return the number of the figure standing on the cell
+	 */
+	public int getWorkerAt(int square) {
+		for (int worker = 0; worker < 4; worker++) {
+			if (board.getWorker(worker) == square) {
+				return worker;
+			}
+		}
+		return -1;
+	}
+
+	public BitBoard getBoard() {
+		return board;
+	}
+
+	public int getSide() {
+		return side;
+	}
+
+	public boolean getCanMoveUp() {
+		return canMoveUp;
+	}
+
+	public int getCards() {
+		return cards;
+	}
+
+	public int getDrawnCards(int side) {
+		return drawnCards[side];
+	}
+
+	public int getCard() {
+		return card;
+	}
+
+	public int getMoved() {
+		return moved;
+	}
+
+	public int getBuilt() {
+		return built;
+	}
+
+	public boolean isAthenaMovedUp() {
+		return athenaMovedUp;
+	}
+
+	/**
+	 * @return the state of the turn, packed by {@link Turn#pack}
+	 */
+	public int getTurnState() {
+		return Turn.pack(moved, built, card, canMoveUp, athenaMovedUp);
+	}
+
+	/**
+	 * @return the hash key of the position, see {@link Zobrist}
+	 */
+	public long getKey() {
+		return board.getKey() ^ key;
+	}
+
+	/**
+	 * @param symmetry the number of the {@link Symmetry}
+	 * @return the hash key of the position transformed by the given symmetry
+	 */
+	public long getKey(int symmetry) {
+		return board.getKey(symmetry) ^ key;
+	}
+
+	/**
+	 * Returns the symmetry which transforms this position into its canonical
+	 * form. Positions that are rotations or reflections of each other have the
+	 * same canonical form and the same canonical key
+	 * {@code getKey(getCanonicalSymmetry())}.
+	 *
+	 * @return the number of the {@link Symmetry}
+	 */
+	public int getCanonicalSymmetry() {
+		return board.getCanonicalSymmetry();
+	}
+
+	public boolean isGameOver() {
+		return winner >= 0;
+	}
+
+	public int getWinner() {
+		return winner;
+	}
+
+	/**
+	 * @param worker the number of the figure
+	 * @return the name of the figure
+	 */
+	public String getName(int worker) {
+		return names[worker];
+	}
+
+}
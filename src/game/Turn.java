@@ -1,5 +1,7 @@
 package game;
 
+import data.CardSet;
+
 /**
  * manages the order of the moves of the current player.
  *
@@ -46,6 +48,11 @@ public class Turn {
 	 * indicates whether the current player can move his figures to a higher level.
 	 */
 	private boolean canMoveUp;
+	/**
+	 * indicates whether the current player has moved a figure up after drawing an
+	 * athena card, so that the opponent cant move up in the next turn.
+	 */
+	private boolean athenaMovedUp;
 
 	public Turn() {
 		this.moved = 0;
@@ -58,6 +65,7 @@ public class Turn {
 		this.athenaDrawn = false;
 		this.atlasDrawn = false;
 		this.canMoveUp = true;
+		this.athenaMovedUp = false;
 	}
 
 	public Turn(boolean canMoveUp) {
@@ -65,6 +73,71 @@ public class Turn {
 		this.canMoveUp = canMoveUp;
 	}
 
+	/**
+	 * Packs the state of a turn into 9 bits: the number of moves and builds (2
+	 * bits each), the drawn card plus one (3 bits) and the flags canMoveUp and
+	 * athenaMovedUp.
+	 * 
+	 * @param moved         the number of moves
+	 * @param built         the number of builds
+	 * @param card          the drawn card or -1 for none
+	 * @param canMoveUp     true if the figures may move up
+	 * @param athenaMovedUp true if a figure moved up with Athena
+	 * @return the packed state
+	 */
+	public static int pack(int moved, int built, int card, boolean canMoveUp, boolean athenaMovedUp) {
+		return moved | built << 2 | (card + 1) << 4 | (canMoveUp ? 1 : 0) << 7 | (athenaMovedUp ? 1 : 0) << 8;
+	}
+
+	public static int getMoved(int state) {
+		return state & 3;
+	}
+
+	public static int getBuilt(int state) {
+		return state >>> 2 & 3;
+	}
+
+	public static int getCard(int state) {
+		return (state >>> 4 & 7) - 1;
+	}
+
+	public static boolean getCanMoveUp(int state) {
+		return (state >>> 7 & 1) != 0;
+	}
+
+	public static boolean isAthenaMovedUp(int state) {
+		return (state >>> 8 & 1) != 0;
+	}
+
+	/**
+	 * Returns the state of the turn packed by {@link #pack}.
+	 * 
+	 * @return the packed state
+	 */
+	public int getState() {
+		return pack(moved, built, getCard(), canMoveUp, athenaMovedUp);
+	}
+
+	/**
+	 * Restores a state returned by {@link #getState()}.
+	 * 
+	 * @param state the packed state
+	 */
+	public void setState(int state) {
+		int card = getCard(state);
+		moved = getMoved(state);
+		built = getBuilt(state);
+		drawn = card >= 0;
+		apolloDrawn = card == CardSet.APOLLO;
+		maxMove = card == CardSet.ARTEMIS ? 2 : 1;
+		athenaDrawn = card == CardSet.ATHENA;
+		atlasDrawn = card == CardSet.ATLAS;
+		maxBuild = card == CardSet.DEMETER ? 2 : 1;
+		hermesDrawn = card == CardSet.HERMES;
+		canMoveUp = getCanMoveUp(state);
+		athenaMovedUp = isAthenaMovedUp(state);
+	}
+
 	public boolean isDrawn() {
 		return drawn;
 	}
@@ -89,6 +162,29 @@ public class Turn {
 		++built;
 	}
 
+	/**
+	 * Returns the number of the card that has been drawn in this turn.
+	 * 
+	 * @return the card number or -1 if no card has been drawn
+	 */
+	public int getCard() {
+		if (!drawn) {
+			return -1;
+		} else if (apolloDrawn) {
+			return CardSet.APOLLO;
+		} else if (maxMove > 1) {
+			return CardSet.ARTEMIS;
+		} else if (athenaDrawn) {
+			return CardSet.ATHENA;
+		} else if (atlasDrawn) {
+			return CardSet.ATLAS;
+		} else if (maxBuild > 1) {
+			return CardSet.DEMETER;
+		} else {
+			return CardSet.HERMES;
+		}
+	}
+
 	public boolean isApolloDrawn() {
 		return apolloDrawn;
 	}
@@ -129,6 +225,14 @@ public class Turn {
 		return built;
 	}
 
+	public int getMaxBuild() {
+		return maxBuild;
+	}
+
+	public int getMaxMove() {
+		return maxMove;
+	}
+
 	public void setMaxBuild(int maxBuild) {
 		this.maxBuild = maxBuild;
 	}
@@ -145,4 +249,12 @@ public class Turn {
 		this.canMoveUp = canMoveUp;
 	}
 
+	public boolean isAthenaMovedUp() {
+		return athenaMovedUp;
+	}
+
+	public void setAthenaMovedUp(boolean athenaMovedUp) {
+		this.athenaMovedUp = athenaMovedUp;
+	}
+
 }
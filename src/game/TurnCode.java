@@ -0,0 +1,159 @@
+package game;
+
+import java.util.ArrayList;
+
+import data.BitBoard;
+import data.CardSet;
+import data.Symmetry;
+
+/**
+ * Encodes a complete turn, meaning an optional card, one or two moves and one
+ * or two builds, in a single int. Bits 0 to 13 hold the two moves (5 bits for
+ * the cell, 2 bits for the figure each), bits 14 to 25 the two builds (5 bits
+ * for the cell, 1 bit for a dome each) and bits 26 to 28 the card number plus
+ * one. Unused moves and builds have the cell {@link #NONE}.
+ *
+ */
+public final class TurnCode {
+	/**
+	 * the cell of an unused move or build
+	 */
+	public static final int NONE = 31;
+	/**
+	 * a turn without any action
+	 */
+	public static final int EMPTY = NONE | NONE << 7 | NONE << 14 | NONE << 20;
+	private static final int MOVE_BITS = 7;
+	private static final int BUILD_OFFSET = 14;
+	private static final int BUILD_BITS = 6;
+	private static final int CARD_OFFSET = 26;
+
+	private TurnCode() {
+	}
+
+	/**
+	 * @param turn an encoded turn
+	 * @return the number of the drawn card or -1
+	 */
+	public static int getCard(int turn) {
+		return (turn >>> CARD_OFFSET & 7) - 1;
+	}
+
+	/**
+	 * @param turn an encoded turn
+	 * @param card the number of the drawn card
+	 * @return the turn with the card
+	 */
+	public static int withCard(int turn, int card) {
+		return turn & ~(7 << CARD_OFFSET) | (card + 1) << CARD_OFFSET;
+	}
+
+	public static int getMoveCount(int turn) {
+		return getMoveSquare(turn, 0) == NONE ? 0 : getMoveSquare(turn, 1) == NONE ? 1 : 2;
+	}
+
+	public static int getMoveSquare(int turn, int index) {
+		return turn >>> (MOVE_BITS * index) & 31;
+	}
+
+	public static int getMoveWorker(int turn, int index) {
+		return turn >>> (MOVE_BITS * index + 5) & 3;
+	}
+
+	/**
+	 * Appends a move to the given turn, which has to contain less than two moves.
+	 *
+	 * @param turn   an encoded turn
+	 * @param worker the number of the figure
+	 * @param square the destination cell
+	 * @return the turn with the move
+	 */
+	public static int addMove(int turn, int worker, int square) {
+		int shift = MOVE_BITS * getMoveCount(turn);
+		return turn & ~(127 << shift) | (square | worker << 5) << shift;
+	}
+
+	public static int getBuildCount(int turn) {
+		return getBuildSquare(turn, 0) == NONE ? 0 : getBuildSquare(turn, 1) == NONE ? 1 : 2;
+	}
+
+	public static int getBuildSquare(int turn, int index) {
+		return turn >>> (BUILD_OFFSET + BUILD_BITS * index) & 31;
+	}
+
+	public static boolean isDome(int turn, int index) {
+		return (turn >>> (BUILD_OFFSET + BUILD_BITS * index + 5) & 1) != 0;
+	}
+
+	/**
+	 * Appends a build to the given turn, which has to contain less than two
+	 * builds.
+	 *
+	 * @param turn   an encoded turn
+	 * @param square the cell
+	 * @param dome   true for a dome, false for a cuboid
+	 * @return the turn with the build
+	 */
+	public static int addBuild(int turn, int square, boolean dome) {
+		int shift = BUILD_OFFSET + BUILD_BITS * getBuildCount(turn);
+		return turn & ~(63 << shift) | (square | (dome ? 32 : 0)) << shift;
+	}
+
+	/**
+	 * Maps the cells of the given turn with a symmetry of the board. The
+	 * transformed turn can be played in the position transformed by the same
+	 * symmetry, see {@link Position#copyFrom(Position, int)}.
+	 *
+	 * @param turn     an encoded turn
+	 * @param symmetry the number of the {@link Symmetry}
+	 * @return the transformed turn
+	 */
+	public static int transform(int turn, int symmetry) {
+		for (int i = 0; i < 2; i++) {
+			int shift = MOVE_BITS * i;
+			int square = turn >>> shift & 31;
+			if (square != NONE) {
+				turn = turn & ~(31 << shift) | Symmetry.square(symmetry, square) << shift;
+			}
+			shift = BUILD_OFFSET + BUILD_BITS * i;
+			square = turn >>> shift & 31;
+			if (square != NONE) {
+				turn = turn & ~(31 << shift) | Symmetry.square(symmetry, square) << shift;
+			}
+		}
+		return turn;
+	}
+
+	/**
+	 * Creates the commands which have to be entered to play the given turn,
+	 * including the final turn command unless the turn ends the game.
+	 *
+	 * @param turn     an encoded turn
+	 * @param position the position the turn is played in
+	 * @return the commands of the turn
+	 */
+	public static ArrayList<String> toCommands(int turn, Position position) {
+		ArrayList<String> commands = new ArrayList<String>();
+		if (getCard(turn) >= 0) {
+			commands.add("draw-card " + CardSet.getSymbol(getCard(turn)));
+		}
+		for (int i = 0; i < getMoveCount(turn); i++) {
+			int square = getMoveSquare(turn, i);
+			commands.add("move " + position.getName(getMoveWorker(turn, i)) + ";" + BitBoard.getX(square) + ";"
+					+ BitBoard.getY(square));
+		}
+		for (int i = 0; i < getBuildCount(turn); i++) {
+			int square = getBuildSquare(turn, i);
+			commands.add("build " + (isDome(turn, i) ? "D" : "C") + ";" + BitBoard.getX(square) + ";"
+					+ BitBoard.getY(square));
+		}
+		Position after = new Position();
+		after.copyFrom(position);
+		after.make(turn);
+		if (!after.isGameOver()) {
+			commands.add("turn");
+		}
+		return commands;
+	}
+
+}
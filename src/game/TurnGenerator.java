@@ -0,0 +1,115 @@
+package game;
+
+/**
+ * Generates every legal way to complete the current turn of a position. A turn
+ * consists of an optional card, the moves allowed by the card and the builds
+ * allowed by the card. A turn ends early if one of its actions ends the game.
+ * The turns are encoded by {@link TurnCode} and written into a buffer given by
+ * the caller, so generating turns creates no objects. An instance must not be
+ * shared between threads.
+ *
+ */
+public class TurnGenerator {
+	/**
+	 * the maximum number of turns a position can have
+	 */
+	public static final int MAX_TURNS = 1 << 15;
+	/**
+	 * the maximum number of actions in a turn, a card, two moves and two builds
+	 */
+	private static final int MAX_ACTIONS = 5;
+	/**
+	 * contains a position for each action of the turn that is being generated
+	 */
+	private Position[] stack;
+	/**
+	 * the buffer the turns are written into
+	 */
+	private int[] turns;
+	/**
+	 * the number of turns written into the buffer
+	 */
+	private int count;
+
+	public TurnGenerator() {
+		stack = new Position[MAX_ACTIONS];
+		for (int i = 0; i < stack.length; i++) {
+			stack[i] = new Position();
+		}
+	}
+
+	/**
+	 * Writes all legal completions of the current turn of the given position into
+	 * the given buffer.
+	 *
+	 * @param position the position
+	 * @param turns    a buffer with at least {@link #MAX_TURNS} elements
+	 * @return the number of turns written into the buffer
+	 */
+	public int generate(Position position, int[] turns) {
+		this.turns = turns;
+		count = 0;
+		if (position.isGameOver()) {
+			return 0;
+		}
+		if (position.canDrawCard()) {
+			for (int cards = position.getCards(); cards != 0; cards &= cards - 1) {
+				int card = Integer.numberOfTrailingZeros(cards);
+				Position next = stack[0];
+				next.copyFrom(position);
+				next.drawCard(card);
+				generate(next, TurnCode.withCard(TurnCode.EMPTY, card), 1);
+			}
+		}
+		generate(position, TurnCode.EMPTY, 0);
+		return count;
+	}
+
+	/**
+	 * Writes all legal turns of the player in turn of the given game into the
+	 * given buffer.
+	 *
+	 * @param game  a game whose players have been initialized
+	 * @param turns a buffer with at least {@link #MAX_TURNS} elements
+	 * @return the number of turns written into the buffer
+	 */
+	public int generate(Game game, int[] turns) {
+		return generate(new Position(game), turns);
+	}
+
+	/**
+	 * Adds the turn if it can end in the given position and continues it with
+	 * every possible move and build.
+	 *
+	 * @param position the position after the actions of the turn so far
+	 * @param turn     the actions so far
+	 * @param depth    the number of actions so far
+	 */
+	private void generate(Position position, int turn, int depth) {
+		if (position.isGameOver() || position.canEndTurn()) {
+			turns[count++] = turn;
+			if (position.isGameOver()) {
+				return;
+			}
+		}
+		Position next = stack[depth];
+		int first = 2 * position.getSide();
+		for (int worker = first; worker < first + 2; worker++) {
+			for (int targets = position.getMoveTargets(worker); targets != 0; targets &= targets - 1) {
+				int square = Integer.numberOfTrailingZeros(targets);
+				next.copyFrom(position);
+				next.move(worker, square);
+				generate(next, TurnCode.addMove(turn, worker, square), depth + 1);
+			}
+		}
+		for (int dome = 0; dome < 2; dome++) {
+			for (int targets = position.getBuildTargets(dome == 1); targets != 0; targets &= targets - 1) {
+				int square = Integer.numberOfTrailingZeros(targets);
+				next.copyFrom(position);
+				next.build(square, dome == 1);
+				generate(next, TurnCode.addBuild(turn, square, dome == 1), depth + 1);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+package game;
+
+/**
+ * Encodes the record of a successful action in a single int, so that the
+ * action can be taken back and repeated. Bits 0 to 2 hold the type of the
+ * action, bits 3 to 11 the state of the turn before the action as returned by
+ * {@link Turn#getState()} and bit 12 whether the game was on. Bits 13 to 14
+ * hold the moved figure, bits 15 to 19 the initial cell of a move and bits 20
+ * to 24 the destination cell of a move, the cell of a build or the drawn card.
+ * Bit 25 is set for a dome. The figures are numbered from 0 to 3, the first two
+ * belong to the first player.
+ *
+ */
+public final class UndoRecord {
+	public static final int DRAW = 0;
+	public static final int MOVE = 1;
+	public static final int APOLLO = 2;
+	public static final int BUILD = 3;
+	public static final int TURN = 4;
+	public static final int SURRENDER = 5;
+	private static final int STATE_OFFSET = 3;
+	private static final int GAME_ON_OFFSET = 12;
+	private static final int FIGURE_OFFSET = 13;
+	private static final int FROM_OFFSET = 15;
+	private static final int TARGET_OFFSET = 20;
+	private static final int DOME_OFFSET = 25;
+
+	private UndoRecord() {
+	}
+
+	/**
+	 * @param type      the type of the action
+	 * @param turnState the state of the turn before the action
+	 * @param gameOn    true if the game was on before the action
+	 * @return a record without figure, cells and card
+	 */
+	public static int create(int type, int turnState, boolean gameOn) {
+		return type | turnState << STATE_OFFSET | (gameOn ? 1 : 0) << GAME_ON_OFFSET;
+	}
+
+	/**
+	 * @param record a record
+	 * @param figure the number of the moved figure
+	 * @param from   the initial cell
+	 * @param to     the destination cell
+	 * @return the record with the move
+	 */
+	public static int withMove(int record, int figure, int from, int to) {
+		return record | figure << FIGURE_OFFSET | from << FROM_OFFSET | to << TARGET_OFFSET;
+	}
+
+	/**
+	 * @param record a record
+	 * @param square the cell of the build
+	 * @param dome   true for a dome
+	 * @return the record with the build
+	 */
+	public static int withBuild(int record, int square, boolean dome) {
+		return record | square << TARGET_OFFSET | (dome ? 1 : 0) << DOME_OFFSET;
+	}
+
+	/**
+	 * @param record a record
+	 * @param card   the number of the drawn card
+	 * @return the record with the card
+	 */
+	public static int withCard(int record, int card) {
+		return record | card << TARGET_OFFSET;
+	}
+
+	public static int getType(int record) {
+		return record & 7;
+	}
+
+	public static int getTurnState(int record) {
+		return record >>> STATE_OFFSET & 511;
+	}
+
+	public static boolean isGameOn(int record) {
+		return (record >>> GAME_ON_OFFSET & 1) != 0;
+	}
+
+	public static int getFigure(int record) {
+		return record >>> FIGURE_OFFSET & 3;
+	}
+
+	public static int getFrom(int record) {
+		return record >>> FROM_OFFSET & 31;
+	}
+
+	/**
+	 * @param record a record
+	 * @return the destination cell of a move, the cell of a build or the card
+	 */
+	public static int getTarget(int record) {
+		return record >>> TARGET_OFFSET & 31;
+	}
+
+	public static boolean isDome(int record) {
+		return (record >>> DOME_OFFSET & 1) != 0;
+	}
+
+}
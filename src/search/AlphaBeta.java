@@ -0,0 +1,352 @@
+package search;
+
+import java.util.Arrays;
+
+import data.BitBoard;
+import data.Symmetry;
+import game.Game;
+import game.Position;
+import game.TurnCode;
+import game.TurnGenerator;
+
+/**
+ * Searches the best turn of a position with negamax and alpha-beta pruning. The
+ * search deepens iteratively until the time limit is reached and returns the
+ * result of the last completed iteration. The turns of a position are ordered
+ * by the best turn stored in the transposition table, then by a history of
+ * turns that caused cutoffs and by the height the figures climb to. Positions
+ * are stored in the transposition table in their canonical form, so rotations
+ * and reflections of a position share an entry. An instance must not be shared
+ * between threads.
+ *
+ */
+public class AlphaBeta {
+	/**
+	 * the score of a won position, reduced by the number of turns until the win
+	 */
+	public static final int WIN = 30000;
+	/**
+	 * the maximum depth of a search in turns
+	 */
+	public static final int MAX_PLY = 64;
+	/**
+	 * searches every turn of the root, see
+	 * {@link #search(Position, long, int, int, int)}
+	 */
+	public static final int ALL_TURNS = -2;
+	/**
+	 * the number of positions between two checks of the time limit
+	 */
+	private static final int CHECK_INTERVAL = 256;
+	private TranspositionTable table;
+	private Evaluator evaluator;
+	private TurnGenerator generator;
+	/**
+	 * contains the position of each ply of the current line
+	 */
+	private Position[] positions;
+	/**
+	 * contains the turns of each ply, allocated when a ply is reached
+	 */
+	private int[][] turns;
+	/**
+	 * contains the ordering keys of the turns of each ply
+	 */
+	private long[][] order;
+	/**
+	 * contains the principal variation found from each ply
+	 */
+	private int[][] pv;
+	private int[] pvLength;
+	/**
+	 * contains for each figure and destination cell a score of how often the move
+	 * caused a cutoff
+	 */
+	private int[][] history;
+	/**
+	 * the card the turns of the root have to draw, -1 for turns without a card
+	 * or {@link #ALL_TURNS}
+	 */
+	private int rootCard;
+	private long deadline;
+	private boolean stopped;
+	private long nodes;
+
+	/**
+	 * Creates a search with a transposition table of the given size.
+	 *
+	 * @param megabytes the memory budget of the transposition table in megabytes
+	 */
+	public AlphaBeta(int megabytes) {
+		this(new TranspositionTable(megabytes));
+	}
+
+	public AlphaBeta(TranspositionTable table) {
+		this(table, DefaultEvaluator.INSTANCE);
+	}
+
+	/**
+	 * @param table     the transposition table
+	 * @param evaluator scores the positions at the end of the search
+	 */
+	public AlphaBeta(TranspositionTable table, Evaluator evaluator) {
+		this.table = table;
+		this.evaluator = evaluator;
+		generator = new TurnGenerator();
+		positions = new Position[MAX_PLY + 1];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = new Position();
+			evaluator.attach(positions[i]);
+		}
+		turns = new int[MAX_PLY + 1][];
+		order = new long[MAX_PLY + 1][];
+		pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+		pvLength = new int[MAX_PLY + 1];
+		history = new int[4][BitBoard.CELLS];
+	}
+
+	/**
+	 * Searches the best turn for the player in turn of the given game.
+	 *
+	 * @param game   a game whose players have been initialized
+	 * @param millis the time limit in milliseconds
+	 * @return the result of the search
+	 */
+	public SearchResult search(Game game, long millis) {
+		return search(new Position(game), millis);
+	}
+
+	/**
+	 * Searches the best turn for the player in turn of the given position.
+	 *
+	 * @param position the position
+	 * @param millis   the time limit in milliseconds
+	 * @return the result of the search
+	 */
+	public SearchResult search(Position position, long millis) {
+		return search(position, millis, MAX_PLY);
+	}
+
+	/**
+	 * Searches the best turn for the player in turn of the given position, up to
+	 * the given depth.
+	 *
+	 * @param position the position
+	 * @param millis   the time limit in milliseconds
+	 * @param maxDepth the maximum depth in turns
+	 * @return the result of the search
+	 */
+	public SearchResult search(Position position, long millis, int maxDepth) {
+		return search(position, millis, maxDepth, ALL_TURNS, -WIN - 1);
+	}
+
+	/**
+	 * Searches the best of the turns of the given position that draw the given
+	 * card. The score of the root is not stored in the transposition table, since
+	 * it only holds for these turns. A score of at most alpha is only an upper
+	 * bound of the real score.
+	 *
+	 * @param position the position
+	 * @param millis   the time limit in milliseconds
+	 * @param maxDepth the maximum depth in turns
+	 * @param card     the card number, -1 for the turns without a card or
+	 *                 {@link #ALL_TURNS}
+	 * @param alpha    the lower bound of the window at the root
+	 * @return the result of the search
+	 */
+	public SearchResult search(Position position, long millis, int maxDepth, int card, int alpha) {
+		rootCard = card;
+		deadline = System.nanoTime() + millis * 1000000;
+		stopped = false;
+		nodes = 0;
+		table.newSearch();
+		for (int[] row : history) {
+			Arrays.fill(row, 0);
+		}
+		positions[0].copyFrom(position);
+		SearchResult result = new SearchResult(0, 0, 0, 0, new int[0]);
+		for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY); depth++) {
+			int score = negamax(0, depth, alpha, WIN + 1);
+			if (stopped && depth > 1) {
+				break;
+			}
+			if (pvLength[0] > 0) {
+				result = new SearchResult(pv[0][0], score, depth, nodes, Arrays.copyOf(pv[0], pvLength[0]));
+			}
+			if (stopped || Math.abs(score) > WIN - MAX_PLY) {
+				break;
+			}
+		}
+		return new SearchResult(result.getTurn(), result.getScore(), result.getDepth(), nodes, result.getPv());
+	}
+
+	/**
+	 * Searches the position of the given ply.
+	 *
+	 * @param ply   the number of turns from the root
+	 * @param depth the remaining depth
+	 * @param alpha the lower bound of the window
+	 * @param beta  the upper bound of the window
+	 * @return the score of the position from the view of the player in turn
+	 */
+	private int negamax(int ply, int depth, int alpha, int beta) {
+		pvLength[ply] = 0;
+		if (++nodes % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+			stopped = true;
+		}
+		if (stopped && ply > 0) {
+			return 0;
+		}
+		Position position = positions[ply];
+		if (depth == 0 || ply == MAX_PLY) {
+			return evaluator.evaluate(position);
+		}
+		int symmetry = evaluator.isSymmetric() ? position.getCanonicalSymmetry() : Symmetry.IDENTITY;
+		long key = position.getKey(symmetry);
+		long entry = table.probe(key);
+		int hashTurn = 0;
+		if (entry != 0) {
+			hashTurn = TranspositionTable.getTurn(entry);
+			if (hashTurn != 0) {
+				hashTurn = TurnCode.transform(hashTurn, Symmetry.inverse(symmetry));
+			}
+			int score = fromTable(TranspositionTable.getScore(entry), ply);
+			int bound = TranspositionTable.getBound(entry);
+			if (ply > 0 && TranspositionTable.getDepth(entry) >= depth
+					&& (bound == TranspositionTable.EXACT || bound == TranspositionTable.LOWER && score >= beta
+							|| bound == TranspositionTable.UPPER && score <= alpha)) {
+				return score;
+			}
+		}
+		if (turns[ply] == null) {
+			turns[ply] = new int[TurnGenerator.MAX_TURNS];
+			order[ply] = new long[TurnGenerator.MAX_TURNS];
+		}
+		int count = generator.generate(position, turns[ply]);
+		if (ply == 0 && rootCard != ALL_TURNS) {
+			count = filter(turns[ply], count, rootCard);
+		}
+		if (count == 0) {
+			return -WIN + ply;
+		}
+		sort(position, ply, count, hashTurn);
+		int originalAlpha = alpha;
+		int best = -WIN - 1;
+		int bestTurn = 0;
+		Position next = positions[ply + 1];
+		for (int i = count - 1; i >= 0; i--) {
+			int turn = (int) order[ply][i];
+			next.copyFrom(position);
+			next.make(turn);
+			int score;
+			if (next.isGameOver()) {
+				score = WIN - ply - 1;
+				pvLength[ply + 1] = 0;
+			} else {
+				score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+			}
+			if (stopped && (ply > 0 || bestTurn != 0)) {
+				break;
+			}
+			if (score > best) {
+				best = score;
+				bestTurn = turn;
+				pv[ply][0] = turn;
+				System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+				pvLength[ply] = pvLength[ply + 1] + 1;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						addHistory(turn, depth);
+						break;
+					}
+				}
+			}
+		}
+		if (!stopped && (ply > 0 || rootCard == ALL_TURNS)) {
+			int bound = best <= originalAlpha ? TranspositionTable.UPPER
+					: best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+			int storedTurn = bestTurn == 0 ? 0 : TurnCode.transform(bestTurn, symmetry);
+			table.store(key, storedTurn, toTable(best, ply), depth, bound);
+		}
+		return best;
+	}
+
+	/**
+	 * Keeps the turns which draw the given card.
+	 *
+	 * @return the number of kept turns
+	 */
+	private static int filter(int[] turns, int count, int card) {
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (TurnCode.getCard(turns[i]) == card) {
+				turns[kept++] = turns[i];
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * Sorts the generated turns of the given ply so that the most promising turns
+	 * come last.
+	 *
+	 * @param position the position of the ply
+	 * @param ply      the ply
+	 * @param count    the number of generated turns
+	 * @param hashTurn the best turn stored in the transposition table or 0
+	 */
+	private void sort(Position position, int ply, int count, int hashTurn) {
+		int[] plyTurns = turns[ply];
+		long[] plyOrder = order[ply];
+		BitBoard board = position.getBoard();
+		for (int i = 0; i < count; i++) {
+			int turn = plyTurns[i];
+			long score;
+			if (turn == hashTurn) {
+				score = Integer.MAX_VALUE;
+			} else {
+				score = 0;
+				for (int m = 0; m < TurnCode.getMoveCount(turn); m++) {
+					int worker = TurnCode.getMoveWorker(turn, m);
+					int square = TurnCode.getMoveSquare(turn, m);
+					score += history[worker][square] + 1000 * board.getHeight(square);
+				}
+				if (TurnCode.getCard(turn) >= 0) {
+					score -= 500;
+				}
+			}
+			plyOrder[i] = score << 32 | turn & 0xFFFFFFFFL;
+		}
+		Arrays.sort(plyOrder, 0, count);
+	}
+
+	private void addHistory(int turn, int depth) {
+		for (int m = 0; m < TurnCode.getMoveCount(turn); m++) {
+			history[TurnCode.getMoveWorker(turn, m)][TurnCode.getMoveSquare(turn, m)] += depth * depth;
+		}
+	}
+
+	/**
+	 * Converts a win score relative to the given ply into a score relative to the
+	 * position, so it can be stored in the transposition table.
+	 */
+	private static int toTable(int score, int ply) {
+		if (score > WIN - MAX_PLY) {
+			return score + ply;
+		} else if (score < -WIN + MAX_PLY) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		if (score > WIN - MAX_PLY) {
+			return score - ply;
+		} else if (score < -WIN + MAX_PLY) {
+			return score + ply;
+		}
+		return score;
+	}
+
+}
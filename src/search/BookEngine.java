@@ -0,0 +1,35 @@
+package search;
+
+import game.Position;
+import game.TurnGenerator;
+
+/**
+ * Plays the most played reply of an {@link OpeningBook} while the position is
+ * in the book and asks another engine after that. A reply which is not a legal
+ * turn of the position, because the book is damaged or its key collides with
+ * another position, is ignored like a position which is not in the book.
+ *
+ */
+public class BookEngine implements Engine {
+	private final OpeningBook book;
+	private final Engine engine;
+	private final TurnGenerator generator;
+	private final int[] turns;
+
+	/**
+	 * @param book   the opening book
+	 * @param engine the engine for positions which are not in the book
+	 */
+	public BookEngine(OpeningBook book, Engine engine) {
+		this.book = book;
+		this.engine = engine;
+		generator = new TurnGenerator();
+		turns = new int[TurnGenerator.MAX_TURNS];
+	}
+
+	@Override
+	public int choose(Position position) {
+		int turn = book.getBestTurn(position, turns, generator.generate(position, turns));
+		return turn != 0 ? turn : engine.choose(position);
+	}
+}
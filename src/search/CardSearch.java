@@ -0,0 +1,213 @@
+package search;
+
+import java.util.Arrays;
+
+import data.CardSet;
+import data.Symmetry;
+import edu.kit.informatik.Terminal;
+import game.Game;
+import game.Position;
+import game.TurnCode;
+import game.TurnGenerator;
+
+/**
+ * Decides whether to draw a card and which one. Playing without a card and
+ * drawing each remaining card are the options of a choice node at the root.
+ * Every option gets a summary first, the best score its turns reach one turn
+ * deep. The summaries are cached by the canonical key of the position. The
+ * options are then searched with {@link AlphaBeta} in the order of their
+ * summaries, sharing one transposition table. An option whose summary is more
+ * than {@link #MARGIN} below the best summary is not searched, unless it is the
+ * option without a card, which is always searched to show what a card is
+ * worth. The later options are searched with a window that starts at the
+ * best score so far, so an option that is not better only gets an upper bound
+ * of its score and the search costs little more than a plain search.
+ *
+ * <p>
+ * Usage: {@code CardSearch <depth> <figure1> <figure2> <figure3> <figure4> [command]...},
+ * where the commands are played before the search.
+ *
+ */
+public class CardSearch {
+	/**
+	 * the score an option may lose against the best summary and still be searched
+	 */
+	public static final int MARGIN = 150;
+	/**
+	 * the summary or score of an option that cant be played
+	 */
+	public static final int NONE = Integer.MIN_VALUE;
+	/**
+	 * the number of options, without a card and with each card
+	 */
+	private static final int OPTIONS = CardSet.size() + 1;
+	private static final int CACHE_SIZE = 1 << 16;
+	private final Evaluator evaluator;
+	private final AlphaBeta search;
+	private final TurnGenerator generator;
+	private final int[] turns;
+	private final Position next;
+	/**
+	 * contains the canonical key and the summaries of each cached position
+	 */
+	private final long[] cacheKeys;
+	private final int[] cacheSummaries;
+	private final int[] summaries;
+	private final int[] scores;
+	/**
+	 * indicates for each option whether its score is only an upper bound
+	 */
+	private final boolean[] bounded;
+
+	/**
+	 * @param megabytes the memory budget of the transposition table in megabytes
+	 */
+	public CardSearch(int megabytes) {
+		this(megabytes, DefaultEvaluator.INSTANCE);
+	}
+
+	/**
+	 * @param megabytes the memory budget of the transposition table in megabytes
+	 * @param evaluator scores the summaries and the positions at the end of the
+	 *                  searches
+	 */
+	public CardSearch(int megabytes, Evaluator evaluator) {
+		this.evaluator = evaluator;
+		search = new AlphaBeta(new TranspositionTable(megabytes), evaluator);
+		generator = new TurnGenerator();
+		turns = new int[TurnGenerator.MAX_TURNS];
+		next = new Position();
+		evaluator.attach(next);
+		cacheKeys = new long[CACHE_SIZE];
+		cacheSummaries = new int[CACHE_SIZE * OPTIONS];
+		summaries = new int[OPTIONS];
+		scores = new int[OPTIONS];
+		bounded = new boolean[OPTIONS];
+	}
+
+	/**
+	 * Searches the options of the given position.
+	 *
+	 * @param position the position
+	 * @param millis   the time limit in milliseconds
+	 * @param maxDepth the maximum depth in turns
+	 * @return the result of the best option
+	 */
+	public SearchResult search(Position position, long millis, int maxDepth) {
+		Arrays.fill(scores, NONE);
+		Arrays.fill(bounded, false);
+		summarize(position);
+		Integer[] order = new Integer[OPTIONS];
+		int options = 0;
+		for (int option = 0; option < OPTIONS; option++) {
+			if (summaries[option] != NONE) {
+				order[options++] = option;
+			}
+		}
+		if (options == 0) {
+			return new SearchResult(0, -AlphaBeta.WIN, 0, 0, new int[0]);
+		}
+		Arrays.sort(order, 0, options, (first, second) -> Integer.compare(summaries[second], summaries[first]));
+		long deadline = System.currentTimeMillis() + millis;
+		int bestSummary = summaries[order[0]];
+		SearchResult best = null;
+		long nodes = 0;
+		for (int i = 0; i < options; i++) {
+			int option = order[i];
+			if (i > 0 && option != 0 && summaries[option] < bestSummary - MARGIN) {
+				continue;
+			}
+			long left = Math.max(1, (deadline - System.currentTimeMillis()) / (options - i));
+			int alpha = best == null || best.isLoss() ? -AlphaBeta.WIN - 1 : best.getScore();
+			SearchResult result = search.search(position, left, maxDepth, option - 1, alpha);
+			nodes += result.getNodes();
+			scores[option] = result.getScore();
+			bounded[option] = result.getScore() <= alpha;
+			if (best == null || result.getScore() > best.getScore()) {
+				best = result;
+			}
+		}
+		return new SearchResult(best.getTurn(), best.getScore(), best.getDepth(), nodes, best.getPv());
+	}
+
+	/**
+	 * Computes the summaries of the options of the given position or takes them
+	 * from the cache.
+	 */
+	private void summarize(Position position) {
+		long key = position.getKey(evaluator.isSymmetric() ? position.getCanonicalSymmetry() : Symmetry.IDENTITY);
+		int index = (int) key & CACHE_SIZE - 1;
+		if (cacheKeys[index] == key && key != 0) {
+			System.arraycopy(cacheSummaries, index * OPTIONS, summaries, 0, OPTIONS);
+			return;
+		}
+		Arrays.fill(summaries, NONE);
+		int count = generator.generate(position, turns);
+		for (int i = 0; i < count; i++) {
+			next.copyFrom(position);
+			next.make(turns[i]);
+			int score = next.isGameOver() ? AlphaBeta.WIN - 1 : -evaluator.evaluate(next);
+			int option = TurnCode.getCard(turns[i]) + 1;
+			summaries[option] = Math.max(summaries[option], score);
+		}
+		cacheKeys[index] = key;
+		System.arraycopy(summaries, 0, cacheSummaries, index * OPTIONS, OPTIONS);
+	}
+
+	/**
+	 * @param card the card number or -1 for no card
+	 * @return the best score of the option one turn deep, or {@link #NONE} if it
+	 *         cant be played
+	 */
+	public int getSummary(int card) {
+		return summaries[card + 1];
+	}
+
+	/**
+	 * @param card the card number or -1 for no card
+	 * @return the score of the option in the last search, or {@link #NONE} if it
+	 *         has not been searched
+	 */
+	public int getScore(int card) {
+		return scores[card + 1];
+	}
+
+	/**
+	 * @param card the card number or -1 for no card
+	 * @return true if the score of the option is only an upper bound
+	 */
+	public boolean isBounded(int card) {
+		return bounded[card + 1];
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 5) {
+			Terminal.printError("please enter a depth and two figures and their positions for each player.");
+			return;
+		}
+		int depth = Integer.parseInt(args[0]);
+		Game game = new Game();
+		game.initializePlayers(args[1], args[2], args[3], args[4]);
+		for (int i = 5; i < args.length; i++) {
+			game.execute(args[i]);
+		}
+		game.getOutput().flush();
+		Position position = new Position(game);
+		CardSearch cardSearch = new CardSearch(64);
+		long start = System.nanoTime();
+		SearchResult result = cardSearch.search(position, Integer.MAX_VALUE, depth);
+		long nanos = System.nanoTime() - start;
+		Terminal.printLine(String.format("%-10s %8s %8s", "card", "summary", "score"));
+		for (int card = -1; card < CardSet.size(); card++) {
+			if (cardSearch.getSummary(card) != NONE) {
+				int score = cardSearch.getScore(card);
+				String text = score == NONE ? "pruned" : (cardSearch.isBounded(card) ? "<= " : "") + score;
+				Terminal.printLine(String.format("%-10s %8d %8s", card < 0 ? "-" : CardSet.getSymbol(card),
+						cardSearch.getSummary(card), text));
+			}
+		}
+		Terminal.printLine("best: " + String.join(", ", result.getCommands(position)));
+		Terminal.printLine("nodes: " + result.getNodes());
+		Terminal.printLine("time: " + nanos / 1000000 + " ms");
+	}
+}
@@ -0,0 +1,61 @@
+package search;
+
+import data.BitBoard;
+import data.Player;
+import game.Position;
+
+/**
+ * The handcrafted evaluator. A position is better the higher the figures of a
+ * player stand, the more neighbor cells they can climb on and the more cells
+ * they can move to. A figure on the second level next to a free cell of the
+ * third level threatens to win, which counts twice once no domes are left to
+ * cap the cell. Cells of the second level next to such a figure count as long
+ * as cuboids are left to raise them, and every card a player may still draw
+ * counts as well. The board updates the cells a figure can move to from the
+ * cells each move and build changes, see {@link BitBoard#getReachable(int)},
+ * so scoring a position only looks at the four figures.
+ *
+ */
+public class DefaultEvaluator implements Evaluator {
+	/**
+	 * the evaluator shared by the searches that dont get one
+	 */
+	public static final DefaultEvaluator INSTANCE = new DefaultEvaluator();
+	private static final int HEIGHT = 100;
+	private static final int CLIMB = 30;
+	private static final int MOBILITY = 5;
+	private static final int THREAT = 60;
+	private static final int TOWER = 10;
+	private static final int CARD = 15;
+
+	@Override
+	public int evaluate(Position position) {
+		int side = position.getSide();
+		return evaluate(position, side) - evaluate(position, side ^ 1);
+	}
+
+	/**
+	 * @param position the position
+	 * @param side     the player to score
+	 * @return the score of the player
+	 */
+	private static int evaluate(Position position, int side) {
+		BitBoard board = position.getBoard();
+		int threat = board.getAvailableDomes() == 0 ? 2 * THREAT : THREAT;
+		int tower = board.getAvailableCuboids() == 0 ? 0 : TOWER;
+		int score = 0;
+		for (int worker = 2 * side; worker < 2 * side + 2; worker++) {
+			int level = board.getWorkerLevel(worker);
+			int reachable = board.getReachable(worker);
+			int climbable = reachable & board.getLevelMask(level + 1);
+			score += HEIGHT * level + CLIMB * Integer.bitCount(climbable) + MOBILITY * Integer.bitCount(reachable);
+			if (level == 2) {
+				score += threat * Integer.bitCount(climbable)
+						+ tower * Integer.bitCount(reachable & board.getLevelMask(2) & ~climbable);
+			}
+		}
+		int draws = Player.MAX_CARDS - position.getDrawnCards(side);
+		return score + CARD * Math.min(draws, Integer.bitCount(position.getCards()));
+	}
+
+}
@@ -0,0 +1,84 @@
+package search;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import game.Position;
+
+/**
+ * Chooses the turns of a player, for games between programs. An engine keeps
+ * state between turns and must not be shared between threads.
+ *
+ */
+public interface Engine {
+
+	/**
+	 * Chooses a turn for the player in turn of the given position.
+	 *
+	 * @param position a position at the start of a turn, it is not changed
+	 * @return the turn encoded by {@link game.TurnCode}, or 0 if there is no
+	 *         legal turn
+	 */
+	int choose(Position position);
+
+	/**
+	 * Creates an engine from its description: {@code random}, {@code greedy},
+	 * {@code alphabeta:<depth>}, {@code cards:<depth>} (see {@link CardSearch}),
+	 * {@code nnue:<depth>[:<file>]}, an alpha-beta search with the network of the
+	 * file or {@link NeuralEvaluator#DEFAULT_PATH}, or {@code mcts:<milliseconds>}.
+	 * Only the Monte Carlo search depends on the
+	 * time and plays different games with the same seed.
+	 * {@code book:<file>:<engine>} plays from the opening book in the file, see
+	 * {@link OpeningBook}, and uses the engine described by the rest after that.
+	 *
+	 * @param description the description
+	 * @param seed        the seed of the random generator of the engine
+	 * @return a new engine
+	 * @throws IllegalArgumentException if the description is not valid
+	 */
+	static Engine create(String description, long seed) {
+		if (description.startsWith("book:") && description.indexOf(':', 5) > 5) {
+			int end = description.indexOf(':', 5);
+			try {
+				OpeningBook book = OpeningBook.open(Paths.get(description.substring(5, end)));
+				return new BookEngine(book, create(description.substring(end + 1), seed));
+			} catch (IOException e) {
+				throw new IllegalArgumentException(e.getMessage(), e);
+			}
+		}
+		String[] parts = description.split(":");
+		try {
+			switch (parts[0]) {
+			case "random":
+				return new RandomEngine(seed);
+			case "greedy":
+				return new GreedyEngine(seed);
+			case "alphabeta":
+				int depth = Integer.parseInt(parts[1]);
+				AlphaBeta alphaBeta = new AlphaBeta(8);
+				return position -> alphaBeta.search(position, Integer.MAX_VALUE, depth).getTurn();
+			case "nnue":
+				int nnueDepth = Integer.parseInt(parts[1]);
+				Path network = parts.length > 2 ? Paths.get(parts[2]) : NeuralEvaluator.DEFAULT_PATH;
+				AlphaBeta nnue = new AlphaBeta(new TranspositionTable(8), NeuralEvaluator.load(network));
+				return position -> nnue.search(position, Integer.MAX_VALUE, nnueDepth).getTurn();
+			case "cards":
+				int cardDepth = Integer.parseInt(parts[1]);
+				CardSearch cardSearch = new CardSearch(8);
+				return position -> cardSearch.search(position, Integer.MAX_VALUE, cardDepth).getTurn();
+			case "mcts":
+				long millis = Long.parseLong(parts[1]);
+				MonteCarlo monteCarlo = new MonteCarlo(1, 1, seed);
+				return position -> monteCarlo.search(position, millis).getTurn();
+			default:
+				break;
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			// reported below
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+		throw new IllegalArgumentException("unknown engine " + description);
+	}
+}
@@ -0,0 +1,40 @@
+package search;
+
+import game.Position;
+
+/**
+ * Scores positions which are not decided yet, for the searches that stop
+ * before the end of the game. An evaluator keeps no state between calls unless
+ * its documentation says otherwise.
+ *
+ */
+public interface Evaluator {
+
+	/**
+	 * @param position a position where the game is still on
+	 * @return the score of the position for the player in turn, the higher the
+	 *         better
+	 */
+	int evaluate(Position position);
+
+	/**
+	 * Prepares a position which a search keeps and copies its children into,
+	 * so the evaluator can attach state that is updated with the position, see
+	 * {@link NeuralEvaluator}. Does nothing by default.
+	 *
+	 * @param position the position
+	 */
+	default void attach(Position position) {
+	}
+
+	/**
+	 * Tells whether the evaluator scores the rotations and reflections of a
+	 * position the same. The searches only cache scores by the canonical key of
+	 * a position, see {@link Position#getCanonicalSymmetry()}, if it does.
+	 *
+	 * @return true by default
+	 */
+	default boolean isSymmetric() {
+		return true;
+	}
+}
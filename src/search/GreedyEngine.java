@@ -0,0 +1,64 @@
+package search;
+
+import java.util.Random;
+
+import game.Position;
+import game.TurnGenerator;
+
+/**
+ * Looks one turn ahead: takes a winning turn if there is one and otherwise the
+ * turn after which the {@link Evaluator} scores the position best. Turns with the
+ * same score are chosen at random.
+ *
+ */
+public class GreedyEngine implements Engine {
+	private final Random random;
+	private final Evaluator evaluator;
+	private final TurnGenerator generator;
+	private final int[] turns;
+	private final Position next;
+
+	/**
+	 * @param seed the seed of the random generator
+	 */
+	public GreedyEngine(long seed) {
+		this(seed, DefaultEvaluator.INSTANCE);
+	}
+
+	/**
+	 * @param seed      the seed of the random generator
+	 * @param evaluator scores the positions after each turn
+	 */
+	public GreedyEngine(long seed, Evaluator evaluator) {
+		random = new Random(seed);
+		this.evaluator = evaluator;
+		generator = new TurnGenerator();
+		turns = new int[TurnGenerator.MAX_TURNS];
+		next = new Position();
+		evaluator.attach(next);
+	}
+
+	@Override
+	public int choose(Position position) {
+		int count = generator.generate(position, turns);
+		int best = 0;
+		int bestScore = Integer.MIN_VALUE;
+		int ties = 0;
+		for (int i = 0; i < count; i++) {
+			next.copyFrom(position);
+			next.make(turns[i]);
+			if (next.isGameOver()) {
+				return turns[i];
+			}
+			int score = -evaluator.evaluate(next);
+			if (score > bestScore) {
+				best = turns[i];
+				bestScore = score;
+				ties = 1;
+			} else if (score == bestScore && random.nextInt(++ties) == 0) {
+				best = turns[i];
+			}
+		}
+		return best;
+	}
+}
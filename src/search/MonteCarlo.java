@@ -0,0 +1,337 @@
+package search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import data.BitBoard;
+import game.Game;
+import game.Position;
+import game.TurnCode;
+import game.TurnGenerator;
+
+/**
+ * Searches the best turn of a position with Monte Carlo tree search and UCT
+ * selection. Several threads work on the search at the same time. They are
+ * spread over one or more independent trees (root parallelism), the threads of
+ * a tree share it (tree parallelism) and add a virtual loss to the nodes they
+ * pass so that they spread over different lines. The turns of a node are
+ * ordered by a cheap heuristic and opened up gradually with the number of
+ * visits, since a position can have thousands of turns after Artemis or
+ * Demeter have been drawn.
+ *
+ */
+public class MonteCarlo {
+	/**
+	 * the exploration constant of the UCT formula
+	 */
+	private static final double EXPLORATION = 1.0;
+	/**
+	 * the number of virtual visits added to a node while a playout passes it
+	 */
+	private static final int VIRTUAL_LOSS = 3;
+	/**
+	 * the number of visits of a node before its turns are generated
+	 */
+	private static final int EXPAND_VISITS = 2;
+	/**
+	 * the number of children a node opens up at first and per square root of its
+	 * visits
+	 */
+	private static final int WIDEN_BASE = 4;
+	private static final double WIDEN = 2.0;
+	/**
+	 * the maximum number of turns kept in a node below the root
+	 */
+	private static final int MAX_CHILDREN = 256;
+	private static final int MAX_DEPTH = 64;
+	/**
+	 * the number of threads and of independent trees
+	 */
+	private int threads;
+	private int trees;
+	private long seed;
+
+	/**
+	 * Creates a search where all threads share one tree.
+	 *
+	 * @param threads the number of threads
+	 */
+	public MonteCarlo(int threads) {
+		this(threads, 1, System.nanoTime());
+	}
+
+	/**
+	 * Creates a search.
+	 *
+	 * @param threads the number of threads
+	 * @param trees   the number of independent trees, between 1 and the number of
+	 *                threads
+	 * @param seed    the seed of the random generators
+	 */
+	public MonteCarlo(int threads, int trees, long seed) {
+		this.threads = Math.max(1, threads);
+		this.trees = Math.max(1, Math.min(trees, this.threads));
+		this.seed = seed;
+	}
+
+	public SearchResult search(Game game, long millis) {
+		return search(new Position(game), millis);
+	}
+
+	/**
+	 * Searches the best turn for the player in turn of the given position.
+	 *
+	 * @param position the position
+	 * @param millis   the time limit in milliseconds
+	 * @return the result of the search, its score is the winning rate of the best
+	 *         turn scaled to -1000 to 1000
+	 */
+	public SearchResult search(Position position, long millis) {
+		long deadline = System.nanoTime() + millis * 1000000;
+		MonteCarloNode[] roots = new MonteCarloNode[trees];
+		for (int i = 0; i < trees; i++) {
+			roots[i] = new MonteCarloNode(0, position.getSide() ^ 1);
+		}
+		Worker[] workers = new Worker[threads];
+		Thread[] running = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(position, roots[i % trees], deadline, new Random(seed + i));
+			running[i] = new Thread(workers[i], "monte-carlo-" + i);
+			running[i].start();
+		}
+		long playouts = 0;
+		int depth = 0;
+		for (int i = 0; i < threads; i++) {
+			try {
+				running[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			playouts += workers[i].playouts;
+			depth = Math.max(depth, workers[i].maxDepth);
+		}
+		return createResult(roots, playouts, depth);
+	}
+
+	/**
+	 * Combines the visits of the root children of all trees and chooses the most
+	 * visited turn.
+	 */
+	private SearchResult createResult(MonteCarloNode[] roots, long playouts, int depth) {
+		Map<Integer, int[]> statistics = new HashMap<Integer, int[]>();
+		for (MonteCarloNode root : roots) {
+			MonteCarloNode[] children = root.children;
+			for (int i = 0; children != null && i < children.length; i++) {
+				if (children[i] != null) {
+					int[] stats = statistics.computeIfAbsent(children[i].turn, turn -> new int[2]);
+					stats[0] += children[i].visits;
+					stats[1] += children[i].wins;
+				}
+			}
+		}
+		int bestTurn = 0;
+		int[] best = { 0, 0 };
+		for (Map.Entry<Integer, int[]> entry : statistics.entrySet()) {
+			if (entry.getValue()[0] > best[0]) {
+				bestTurn = entry.getKey();
+				best = entry.getValue();
+			}
+		}
+		int score = best[0] == 0 ? 0 : (int) Math.round((2.0 * best[1] / best[0] - 1) * 1000);
+		return new SearchResult(bestTurn, score, depth, playouts, principalVariation(roots, bestTurn));
+	}
+
+	/**
+	 * Follows the most visited children of the tree with the most visits of the
+	 * best turn.
+	 */
+	private static int[] principalVariation(MonteCarloNode[] roots, int bestTurn) {
+		MonteCarloNode node = null;
+		for (MonteCarloNode root : roots) {
+			MonteCarloNode[] children = root.children;
+			for (int i = 0; children != null && i < children.length; i++) {
+				if (children[i] != null && children[i].turn == bestTurn
+						&& (node == null || children[i].visits > node.visits)) {
+					node = children[i];
+				}
+			}
+		}
+		int[] pv = new int[MAX_DEPTH];
+		int length = 0;
+		while (node != null && length < MAX_DEPTH) {
+			pv[length++] = node.turn;
+			MonteCarloNode next = null;
+			MonteCarloNode[] children = node.children;
+			for (int i = 0; children != null && i < children.length; i++) {
+				if (children[i] != null && (next == null || children[i].visits > next.visits)) {
+					next = children[i];
+				}
+			}
+			node = next;
+		}
+		return Arrays.copyOf(pv, length);
+	}
+
+	/**
+	 * Runs playouts on one tree until the time limit is reached.
+	 */
+	private static class Worker implements Runnable {
+		private Position rootPosition;
+		private MonteCarloNode root;
+		private long deadline;
+		private Random random;
+		private TurnGenerator generator;
+		private int[] turns;
+		private long[] order;
+		private Position position;
+		private MonteCarloNode[] path;
+		private long playouts;
+		private int maxDepth;
+
+		Worker(Position rootPosition, MonteCarloNode root, long deadline, Random random) {
+			this.rootPosition = new Position();
+			this.rootPosition.copyFrom(rootPosition);
+			this.root = root;
+			this.deadline = deadline;
+			this.random = random;
+			generator = new TurnGenerator();
+			turns = new int[TurnGenerator.MAX_TURNS];
+			order = new long[TurnGenerator.MAX_TURNS];
+			position = new Position();
+			path = new MonteCarloNode[MAX_DEPTH + 1];
+		}
+
+		@Override
+		public void run() {
+			do {
+				for (int i = 0; i < 16; i++) {
+					iterate();
+				}
+			} while (System.nanoTime() < deadline);
+		}
+
+		/**
+		 * Selects a line down the tree, expands its last node if it has been visited
+		 * often enough, plays the game to the end and records the result along the
+		 * line.
+		 */
+		private void iterate() {
+			position.copyFrom(rootPosition);
+			MonteCarloNode node = root;
+			int depth = 0;
+			path[0] = root;
+			root.addVirtualLoss(VIRTUAL_LOSS);
+			int winner;
+			while (true) {
+				if (position.isGameOver()) {
+					winner = position.getWinner();
+					break;
+				}
+				if (node.children == null) {
+					if (node != root && node.visits < EXPAND_VISITS * VIRTUAL_LOSS || depth == MAX_DEPTH) {
+						winner = Playout.play(position, random);
+						break;
+					}
+					expand(node, node == root);
+				}
+				if (node.turns.length == 0) {
+					winner = position.getSide() ^ 1;
+					break;
+				}
+				MonteCarloNode child = select(node, position.getSide());
+				if (child == null) {
+					winner = Playout.play(position, random);
+					break;
+				}
+				child.addVirtualLoss(VIRTUAL_LOSS);
+				position.make(child.turn);
+				path[++depth] = child;
+				node = child;
+			}
+			for (int i = 0; i <= depth; i++) {
+				path[i].update(VIRTUAL_LOSS, path[i].side == winner);
+			}
+			++playouts;
+			maxDepth = Math.max(maxDepth, depth);
+		}
+
+		/**
+		 * Generates the turns of the given node, ordered by the heuristic.
+		 */
+		private void expand(MonteCarloNode node, boolean isRoot) {
+			int count = generator.generate(position, turns);
+			BitBoard board = position.getBoard();
+			int opponentHigh = board.getWorkers(position.getSide() ^ 1) & board.getLevelMask(2);
+			int opponentReach = 0;
+			for (int rest = opponentHigh; rest != 0; rest &= rest - 1) {
+				opponentReach |= BitBoard.getNeighbors(Integer.numberOfTrailingZeros(rest));
+			}
+			for (int i = 0; i < count; i++) {
+				int turn = turns[i];
+				long score = random.nextInt(100);
+				for (int m = 0; m < TurnCode.getMoveCount(turn); m++) {
+					int height = board.getHeight(TurnCode.getMoveSquare(turn, m));
+					score += height == 3 ? 1000000 : 1000 * height;
+				}
+				for (int b = 0; b < TurnCode.getBuildCount(turn); b++) {
+					int square = TurnCode.getBuildSquare(turn, b);
+					if (!TurnCode.isDome(turn, b) && board.getHeight(square) == 2
+							&& (opponentReach >>> square & 1) != 0) {
+						score -= 5000;
+					}
+				}
+				if (TurnCode.getCard(turn) >= 0) {
+					score -= 500;
+				}
+				order[i] = -score << 32 | turn & 0xFFFFFFFFL;
+			}
+			Arrays.sort(order, 0, count);
+			int kept = isRoot ? count : Math.min(count, MAX_CHILDREN);
+			int[] sorted = new int[kept];
+			for (int i = 0; i < kept; i++) {
+				sorted[i] = (int) order[i];
+			}
+			node.expand(sorted);
+		}
+
+		/**
+		 * Opens up the next child if the node has been visited often enough, else
+		 * chooses the child with the highest UCT value.
+		 *
+		 * @return the chosen child or null if no child is ready yet
+		 */
+		private MonteCarloNode select(MonteCarloNode node, int side) {
+			int count = node.turns.length;
+			int visits = node.visits;
+			int limit = Math.min(count, WIDEN_BASE + (int) (WIDEN * Math.sqrt(visits)));
+			if (node.created < limit) {
+				int index = node.reserveChild();
+				if (index < count) {
+					MonteCarloNode child = new MonteCarloNode(node.turns[index], side);
+					node.children[index] = child;
+					return child;
+				}
+			}
+			MonteCarloNode[] children = node.children;
+			double logVisits = Math.log(visits + 1);
+			MonteCarloNode best = null;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < Math.min(node.created, count); i++) {
+				MonteCarloNode child = children[i];
+				if (child != null) {
+					int childVisits = Math.max(child.visits, 1);
+					double value = (double) child.wins / childVisits
+							+ EXPLORATION * Math.sqrt(logVisits / childVisits);
+					if (value > bestValue) {
+						bestValue = value;
+						best = child;
+					}
+				}
+			}
+			return best;
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package search;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A node of the tree of a {@link MonteCarlo} search. The statistics are updated
+ * by several threads without locks, only the expansion of a node is
+ * synchronized.
+ *
+ */
+class MonteCarloNode {
+	private static final AtomicIntegerFieldUpdater<MonteCarloNode> VISITS = AtomicIntegerFieldUpdater
+			.newUpdater(MonteCarloNode.class, "visits");
+	private static final AtomicIntegerFieldUpdater<MonteCarloNode> WINS = AtomicIntegerFieldUpdater
+			.newUpdater(MonteCarloNode.class, "wins");
+	private static final AtomicIntegerFieldUpdater<MonteCarloNode> CREATED = AtomicIntegerFieldUpdater
+			.newUpdater(MonteCarloNode.class, "created");
+	/**
+	 * the turn that leads to this node
+	 */
+	final int turn;
+	/**
+	 * the side that played the turn
+	 */
+	final int side;
+	/**
+	 * the number of playouts through this node, including virtual losses
+	 */
+	volatile int visits;
+	/**
+	 * the number of playouts through this node won by the side that played the
+	 * turn
+	 */
+	volatile int wins;
+	/**
+	 * the number of children that have been created
+	 */
+	volatile int created;
+	/**
+	 * the turns of the position of this node, most promising first
+	 */
+	int[] turns;
+	/**
+	 * the children in the order of the turns, null until created
+	 */
+	volatile MonteCarloNode[] children;
+
+	MonteCarloNode(int turn, int side) {
+		this.turn = turn;
+		this.side = side;
+	}
+
+	/**
+	 * Sets the turns of the node. Only the first call has an effect.
+	 *
+	 * @param turns the turns, most promising first
+	 */
+	synchronized void expand(int[] turns) {
+		if (children == null) {
+			this.turns = turns;
+			children = new MonteCarloNode[turns.length];
+		}
+	}
+
+	/**
+	 * Reserves the next child to be created.
+	 *
+	 * @return the index of the child
+	 */
+	int reserveChild() {
+		return CREATED.getAndIncrement(this);
+	}
+
+	/**
+	 * Adds a virtual loss, so other threads prefer other nodes until the playout
+	 * through this node is finished.
+	 *
+	 * @param loss the number of virtual visits
+	 */
+	void addVirtualLoss(int loss) {
+		VISITS.addAndGet(this, loss);
+	}
+
+	/**
+	 * Records the result of a playout and removes the virtual loss.
+	 *
+	 * @param loss the number of virtual visits added before
+	 * @param won  true if the side that played the turn has won
+	 */
+	void update(int loss, boolean won) {
+		VISITS.addAndGet(this, 1 - loss);
+		if (won) {
+			WINS.incrementAndGet(this);
+		}
+	}
+
+}
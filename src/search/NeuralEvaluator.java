@@ -0,0 +1,152 @@
+package search;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import data.Accumulator;
+import data.BitBoard;
+import game.Position;
+
+/**
+ * Scores positions with a small neural network of 16-bit integer weights (in
+ * the manner of an NNUE). The first layer maps the features of the board to
+ * two sums, one from the view of each player, see {@link Accumulator}. The
+ * sums are clipped to the range from 0 to {@link #CLIP}, the sums of the player
+ * in turn followed by those of the opponent are weighted by the output layer
+ * and divided by the scale of the network. The searches attach an accumulator
+ * to the positions they keep, which the board updates on every move and build,
+ * so only the output layer is computed for each evaluated position. Positions
+ * without an accumulator are summed up from scratch.
+ *
+ * <p>
+ * The weights of a cell are looked up as they are, so the network only scores
+ * the rotations and reflections of a position the same if the weights of each
+ * cell equal those of its images under the symmetries of the board. This is
+ * checked when the network is read, the searches store the scores of any other
+ * network by the key of the position instead of its canonical key.
+ *
+ * <p>
+ * A network file starts with {@link #MAGIC}, the number of sums of each view,
+ * at most {@link #MAX_SIZE}, and the scale. It is followed by the weights of
+ * each feature of the first layer, the biases of the first layer, the weights
+ * of the output layer, all of them 16-bit, and the 32-bit output bias. All
+ * numbers are big-endian. An instance must not be shared between threads.
+ *
+ */
+public class NeuralEvaluator implements Evaluator {
+	/**
+	 * the first eight bytes of a network, "SANTNNUE"
+	 */
+	public static final long MAGIC = 0x53414E544E4E5545L;
+	/**
+	 * the path of the network used if no other one is given
+	 */
+	public static final Path DEFAULT_PATH = Paths.get("santorini.nnue");
+	public static final int MAX_SIZE = 256;
+	/**
+	 * the largest input of the output layer, small enough that the weighted sum
+	 * of {@link #MAX_SIZE} inputs of each view fits into an int
+	 */
+	public static final int CLIP = 127;
+	/**
+	 * the largest score, so the network never reports a won position
+	 */
+	private static final int MAX_SCORE = AlphaBeta.WIN - AlphaBeta.MAX_PLY - 1;
+	private final short[] weights;
+	private final short[] biases;
+	private final short[] outputWeights;
+	private final int outputBias;
+	private final int scale;
+	private final int size;
+	private final boolean symmetric;
+	/**
+	 * the accumulator for positions which have none attached
+	 */
+	private final Accumulator scratch;
+
+	private NeuralEvaluator(short[] weights, short[] biases, short[] outputWeights, int outputBias, int scale) {
+		this.weights = weights;
+		this.biases = biases;
+		this.outputWeights = outputWeights;
+		this.outputBias = outputBias;
+		this.scale = scale;
+		size = biases.length;
+		symmetric = Accumulator.isSymmetric(weights, size);
+		scratch = new Accumulator(weights, biases);
+	}
+
+	/**
+	 * Reads the network of the given file, or returns the handcrafted evaluator
+	 * if there is no such file.
+	 *
+	 * @param path the path of the network
+	 * @return a new neural evaluator or {@link DefaultEvaluator#INSTANCE}
+	 * @throws IOException if the file cant be read or is not a network
+	 */
+	public static Evaluator load(Path path) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return DefaultEvaluator.INSTANCE;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+		try {
+			if (buffer.getLong() != MAGIC) {
+				throw new IOException("not a network");
+			}
+			int size = buffer.getInt();
+			int scale = buffer.getInt();
+			if (size <= 0 || size > MAX_SIZE || scale <= 0) {
+				throw new IOException("the network is damaged");
+			}
+			short[] weights = new short[Accumulator.FEATURES * size];
+			short[] biases = new short[size];
+			short[] outputWeights = new short[2 * size];
+			buffer.asShortBuffer().get(weights).get(biases).get(outputWeights);
+			buffer.position(buffer.position() + 2 * (weights.length + biases.length + outputWeights.length));
+			int outputBias = buffer.getInt();
+			if (buffer.hasRemaining()) {
+				throw new IOException("the network is damaged");
+			}
+			return new NeuralEvaluator(weights, biases, outputWeights, outputBias, scale);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("the network is damaged", e);
+		}
+	}
+
+	@Override
+	public void attach(Position position) {
+		position.getBoard().setAccumulator(new Accumulator(weights, biases));
+	}
+
+	@Override
+	public boolean isSymmetric() {
+		return symmetric;
+	}
+
+	@Override
+	public int evaluate(Position position) {
+		BitBoard board = position.getBoard();
+		Accumulator accumulator = board.getAccumulator();
+		if (accumulator == null || !accumulator.sharesWeights(scratch)) {
+			scratch.refresh(board);
+			accumulator = scratch;
+		}
+		int side = position.getSide();
+		int own = 0;
+		int other = 0;
+		for (int i = 0; i < size; i++) {
+			own += clip(accumulator.getValue(side, i)) * outputWeights[i];
+			other += clip(accumulator.getValue(side ^ 1, i)) * outputWeights[size + i];
+		}
+		long score = ((long) own + other + outputBias) / scale;
+		return (int) Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+	}
+
+	private static int clip(int value) {
+		return Math.max(0, Math.min(CLIP, value));
+	}
+
+}
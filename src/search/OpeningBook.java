@@ -0,0 +1,228 @@
+package search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import game.Position;
+import game.TurnCode;
+
+/**
+ * The replies played in early positions and how they did, read in place from a
+ * memory mapped file. The file starts with {@link #MAGIC} and the number of
+ * slots, a power of two, followed by the number of positions. A position is
+ * stored in the first free slot from the slot selected by the low bits of its
+ * hash key (open addressing with linear probing). A slot holds the key, 0 for
+ * a free slot, the number of replies and of games, and for up to
+ * {@link #MAX_REPLIES} replies the turn, the number of games and the points of
+ * the player who played it, two per win and one per draw. The replies are
+ * sorted by their number of games. Positions and their replies are stored in
+ * their canonical form, see {@link Position#getCanonicalSymmetry()}, so a
+ * position shares its slot with its rotations and reflections. A book can be
+ * shared between threads.
+ *
+ */
+public class OpeningBook {
+	/**
+	 * the first eight bytes of a book, "SANTBOOK"
+	 */
+	public static final long MAGIC = 0x53414E54424F4F4BL;
+	public static final int MAX_REPLIES = 4;
+	private static final int HEADER_BYTES = 16;
+	private static final int SLOT_BYTES = 64;
+	private static final int REPLY_BYTES = 12;
+	private static final Map<Path, OpeningBook> OPENED = new ConcurrentHashMap<Path, OpeningBook>();
+	private final ByteBuffer buffer;
+	private final int mask;
+	private final int size;
+
+	private OpeningBook(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.limit() < HEADER_BYTES || buffer.getLong(0) != MAGIC) {
+			throw new IOException("not an opening book");
+		}
+		int slots = buffer.getInt(8);
+		if (Integer.bitCount(slots) != 1 || (long) slots * SLOT_BYTES + HEADER_BYTES > buffer.limit()) {
+			throw new IOException("the opening book is damaged");
+		}
+		this.mask = slots - 1;
+		this.size = buffer.getInt(12);
+	}
+
+	/**
+	 * Maps the given book into memory. A book that has been opened before is
+	 * shared.
+	 *
+	 * @param path the path of the book
+	 * @return the book
+	 * @throws IOException if the book cant be read
+	 */
+	public static OpeningBook open(Path path) throws IOException {
+		Path key = path.toAbsolutePath().normalize();
+		OpeningBook book = OPENED.get(key);
+		if (book == null) {
+			try (FileChannel channel = FileChannel.open(key, StandardOpenOption.READ)) {
+				book = new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			}
+			OPENED.putIfAbsent(key, book);
+		}
+		return book;
+	}
+
+	/**
+	 * @param slots the number of slots, a power of two
+	 * @param key   a hash key
+	 * @return the slot where the search for the key starts
+	 */
+	private static int getHome(int slots, long key) {
+		return (int) key & slots - 1;
+	}
+
+	/**
+	 * Finds the slot of a position. Every slot is visited at most once, so a
+	 * damaged book without a free slot doesnt make the search loop forever.
+	 *
+	 * @param key the canonical hash key of the position
+	 * @return the index of the slot in the file, or -1 if the position is not in
+	 *         the book
+	 */
+	public int probe(long key) {
+		int slot = getHome(mask + 1, key);
+		for (int probes = 0; probes <= mask; probes++) {
+			int index = HEADER_BYTES + slot * SLOT_BYTES;
+			long stored = buffer.getLong(index);
+			if (stored == key) {
+				return index;
+			} else if (stored == 0) {
+				return -1;
+			}
+			slot = slot + 1 & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Looks up the reply played most often in the given position among its legal
+	 * turns. The stored reply is compared with the legal turns in the canonical
+	 * form, so a damaged book or a colliding key never yields an illegal turn.
+	 *
+	 * @param position a position at the start of a turn
+	 * @param turns    the legal turns of the position, see {@link game.TurnGenerator}
+	 * @param count    the number of legal turns
+	 * @return the reply, or 0 if the position is not in the book or the reply is
+	 *         not one of the legal turns
+	 */
+	public int getBestTurn(Position position, int[] turns, int count) {
+		int symmetry = position.getCanonicalSymmetry();
+		int slot = probe(position.getKey(symmetry));
+		if (slot < 0 || getReplyCount(slot) == 0) {
+			return 0;
+		}
+		int reply = getTurn(slot, 0);
+		for (int i = 0; i < count; i++) {
+			if (TurnCode.transform(turns[i], symmetry) == reply) {
+				return turns[i];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @param slot a slot returned by {@link #probe(long)}
+	 * @return the number of stored replies
+	 */
+	public int getReplyCount(int slot) {
+		return buffer.getInt(slot + 8);
+	}
+
+	/**
+	 * @param slot a slot returned by {@link #probe(long)}
+	 * @return the number of games played from the position, with all replies
+	 */
+	public int getGames(int slot) {
+		return buffer.getInt(slot + 12);
+	}
+
+	public int getTurn(int slot, int reply) {
+		return buffer.getInt(slot + 16 + reply * REPLY_BYTES);
+	}
+
+	public int getGames(int slot, int reply) {
+		return buffer.getInt(slot + 20 + reply * REPLY_BYTES);
+	}
+
+	/**
+	 * @param slot  a slot returned by {@link #probe(long)}
+	 * @param reply the number of the reply
+	 * @return the points of the player who played the reply, two per win and one
+	 *         per draw
+	 */
+	public int getPoints(int slot, int reply) {
+		return buffer.getInt(slot + 24 + reply * REPLY_BYTES);
+	}
+
+	/**
+	 * @return the number of positions
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Writes a position into the buffer of a book. The slot is placed by the same
+	 * probing as {@link #probe(long)}.
+	 *
+	 * @param buffer  the buffer of the book
+	 * @param slots   the number of slots
+	 * @param key     the hash key of the position, not 0
+	 * @param games   the number of games played from the position
+	 * @param replies the turn, the number of games and the points of each reply,
+	 *                at most {@link #MAX_REPLIES}
+	 */
+	private static void put(ByteBuffer buffer, int slots, long key, int games, int[][] replies) {
+		int slot = getHome(slots, key);
+		while (buffer.getLong(HEADER_BYTES + slot * SLOT_BYTES) != 0) {
+			slot = slot + 1 & slots - 1;
+		}
+		int index = HEADER_BYTES + slot * SLOT_BYTES;
+		buffer.putLong(index, key).putInt(index + 8, replies.length).putInt(index + 12, games);
+		for (int reply = 0; reply < replies.length; reply++) {
+			for (int i = 0; i < 3; i++) {
+				buffer.putInt(index + 16 + reply * REPLY_BYTES + 4 * i, replies[reply][i]);
+			}
+		}
+	}
+
+	/**
+	 * Writes a book.
+	 *
+	 * @param path    the path of the book
+	 * @param keys    the canonical hash key of each position, not 0
+	 * @param games   the number of games played from each position
+	 * @param replies the canonical turn, the number of games and the points of
+	 *                each reply of each position, at most {@link #MAX_REPLIES}
+	 * @throws IOException if the book cant be written
+	 */
+	public static void write(Path path, long[] keys, int[] games, int[][][] replies) throws IOException {
+		int slots = Integer.highestOneBit(Math.max(1, 2 * keys.length - 1)) << 1;
+		if (slots > (Integer.MAX_VALUE - HEADER_BYTES) / SLOT_BYTES) {
+			throw new IOException("too many positions for an opening book");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + slots * SLOT_BYTES);
+		buffer.putLong(0, MAGIC).putInt(8, slots).putInt(12, keys.length);
+		for (int i = 0; i < keys.length; i++) {
+			put(buffer, slots, keys[i], games[i], replies[i]);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		OPENED.remove(path.toAbsolutePath().normalize());
+	}
+}
@@ -0,0 +1,132 @@
+package search;
+
+import java.util.Random;
+
+import data.BitBoard;
+import game.Position;
+
+/**
+ * Plays a game from a position until it ends, choosing random actions. A figure
+ * that can climb to the third level always does, so obvious wins are not
+ * missed. A player who cant complete his turn loses.
+ *
+ */
+public final class Playout {
+	/**
+	 * the maximum number of turns of a playout, the evaluation decides after that
+	 */
+	public static final int MAX_TURNS = 100;
+	/**
+	 * a card is drawn with a chance of one in this number when possible
+	 */
+	private static final int CARD_CHANCE = 8;
+
+	private Playout() {
+	}
+
+	/**
+	 * Plays the game of the given position to its end. The position is changed.
+	 *
+	 * @param position the position, at the start of a turn
+	 * @param random   the random generator
+	 * @return the side which has won
+	 */
+	public static int play(Position position, Random random) {
+		for (int turns = 0; turns < MAX_TURNS; turns++) {
+			if (position.isGameOver()) {
+				return position.getWinner();
+			}
+			int side = position.getSide();
+			if (position.canDrawCard() && random.nextInt(CARD_CHANCE) == 0) {
+				position.drawCard(Integer.numberOfTrailingZeros(pick(position.getCards(), random)));
+			}
+			if (!move(position, random)) {
+				return side ^ 1;
+			}
+			if (position.canMove() && random.nextBoolean()) {
+				move(position, random);
+			}
+			if (position.isGameOver()) {
+				return position.getWinner();
+			}
+			if (!build(position, random)) {
+				return side ^ 1;
+			}
+			if (position.canBuild() && random.nextBoolean()) {
+				build(position, random);
+			}
+			if (position.isGameOver()) {
+				return position.getWinner();
+			}
+			position.endTurn();
+		}
+		return DefaultEvaluator.INSTANCE.evaluate(position) >= 0 ? position.getSide() : position.getSide() ^ 1;
+	}
+
+	/**
+	 * Moves a random figure of the player in turn to a random target, preferring
+	 * targets on the third level.
+	 *
+	 * @return false if no figure can be moved
+	 */
+	private static boolean move(Position position, Random random) {
+		int first = 2 * position.getSide();
+		int targets0 = position.getMoveTargets(first);
+		int targets1 = position.getMoveTargets(first + 1);
+		int top = position.getBoard().getLevelMask(3);
+		if ((targets0 & top) != 0) {
+			position.move(first, Integer.numberOfTrailingZeros(targets0 & top));
+		} else if ((targets1 & top) != 0) {
+			position.move(first + 1, Integer.numberOfTrailingZeros(targets1 & top));
+		} else if (targets0 == 0 && targets1 == 0) {
+			return false;
+		} else {
+			int index = random.nextInt(Integer.bitCount(targets0) + Integer.bitCount(targets1));
+			if (index < Integer.bitCount(targets0)) {
+				position.move(first, nthSquare(targets0, index));
+			} else {
+				position.move(first + 1, nthSquare(targets1, index - Integer.bitCount(targets0)));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Builds a random element on a random cell.
+	 *
+	 * @return false if nothing can be built
+	 */
+	private static boolean build(Position position, Random random) {
+		int cuboids = position.getBuildTargets(false);
+		int domes = position.getBuildTargets(true);
+		if ((cuboids | domes) == 0) {
+			return false;
+		}
+		int square = Integer.numberOfTrailingZeros(pick(cuboids | domes, random));
+		boolean dome = (cuboids >>> square & 1) == 0 || (domes >>> square & 1) != 0 && random.nextBoolean();
+		position.build(square, dome);
+		return true;
+	}
+
+	/**
+	 * @param mask   a mask with at least one bit
+	 * @param random the random generator
+	 * @return a mask with one random bit of the given mask
+	 */
+	private static int pick(int mask, Random random) {
+		return 1 << nthSquare(mask, random.nextInt(Integer.bitCount(mask)));
+	}
+
+	/**
+	 * @param mask  a mask of cells
+	 * @param index the index of a set bit, starting with the lowest
+	 * @return the cell of the bit
+	 */
+	private static int nthSquare(int mask, int index) {
+		for (int i = 0; i < index; i++) {
+			mask &= mask - 1;
+		}
+		return Integer.numberOfTrailingZeros(mask & BitBoard.FULL);
+	}
+
+}
@@ -0,0 +1,289 @@
+package search;
+
+import java.util.Arrays;
+
+import edu.kit.informatik.Terminal;
+import game.Game;
+import game.Position;
+import game.TurnCode;
+import game.TurnGenerator;
+
+/**
+ * Proves or disproves that the player in turn can force a win, with a
+ * depth-first proof-number search (df-pn). The proof number of a position is
+ * the number of positions that at least have to be solved to prove a win of
+ * the player in turn, the disproof number those to prove a loss. A position is
+ * won if one of its turns leads to a lost position and lost if all of them lead
+ * to won positions. The numbers are kept in a {@link ProofTable} by the
+ * canonical key of each position, so the memory is bounded and rotations and
+ * reflections are solved once. Since every turn builds, a game can't repeat a
+ * position and ends without a draw, so a disproof is a forced loss.
+ *
+ * <p>
+ * Usage: {@code ProofSearch <nodes> <figure1> <figure2> <figure3> <figure4> [command]...},
+ * where the commands are played before the search.
+ *
+ */
+public class ProofSearch {
+	/**
+	 * the result of a search from the view of the player in turn
+	 */
+	public static final int LOSS = -1;
+	public static final int UNKNOWN = 0;
+	public static final int WIN = 1;
+	/**
+	 * the proof or disproof number of a position that cant be proved or disproved
+	 */
+	public static final int INFINITY = 1 << 30;
+	/**
+	 * the maximum number of turns from the root
+	 */
+	private static final int MAX_PLY = 128;
+	/**
+	 * the share of the second best child a threshold may exceed, which saves
+	 * switching between children of similar cost (the 1 + epsilon trick)
+	 */
+	private static final int EPSILON_DIVISOR = 4;
+	private final ProofTable table;
+	private final TurnGenerator generator;
+	private final Position[] positions;
+	/**
+	 * contains the turns and the canonical keys of the children of each ply,
+	 * allocated when a ply is reached
+	 */
+	private final int[][] turns;
+	private final long[][] childKeys;
+	private final int[] lineTurns;
+	private int[] line;
+	private long nodes;
+	private long maxNodes;
+	private boolean stopped;
+
+	/**
+	 * @param megabytes the memory budget of the proof table in megabytes
+	 */
+	public ProofSearch(int megabytes) {
+		table = new ProofTable(megabytes);
+		generator = new TurnGenerator();
+		positions = new Position[MAX_PLY + 1];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = new Position();
+		}
+		turns = new int[MAX_PLY + 1][];
+		childKeys = new long[MAX_PLY + 1][];
+		lineTurns = new int[TurnGenerator.MAX_TURNS];
+		line = new int[0];
+	}
+
+	/**
+	 * Solves the given position. The proof table is kept between searches.
+	 *
+	 * @param position the position
+	 * @param maxNodes the maximum number of positions to expand
+	 * @return {@link #WIN}, {@link #LOSS} or {@link #UNKNOWN} if the limit was
+	 *         reached, from the view of the player in turn
+	 */
+	public int solve(Position position, long maxNodes) {
+		this.maxNodes = maxNodes;
+		nodes = 0;
+		line = new int[0];
+		if (position.isGameOver()) {
+			return position.getWinner() == position.getSide() ? WIN : LOSS;
+		}
+		int result = solveNode(position);
+		if (result != UNKNOWN) {
+			line = findLine(position);
+		}
+		return result;
+	}
+
+	/**
+	 * Searches a position which is not over until it is solved or the limit is
+	 * reached.
+	 */
+	private int solveNode(Position position) {
+		stopped = false;
+		positions[0].copyFrom(position);
+		mid(0, INFINITY, INFINITY);
+		long numbers = table.probe(getKey(position));
+		if (ProofTable.getProof(numbers) == 0) {
+			return WIN;
+		}
+		return ProofTable.getDisproof(numbers) == 0 ? LOSS : UNKNOWN;
+	}
+
+	private static long getKey(Position position) {
+		return position.getKey(position.getCanonicalSymmetry());
+	}
+
+	/**
+	 * Searches the position of the given ply until its proof number reaches the
+	 * proof limit or its disproof number the disproof limit. The proof number of
+	 * a position is the smallest disproof number of its children, the disproof
+	 * number the sum of their proof numbers.
+	 *
+	 * @param ply           the number of turns from the root
+	 * @param proofLimit    the limit of the proof number
+	 * @param disproofLimit the limit of the disproof number
+	 */
+	private void mid(int ply, int proofLimit, int disproofLimit) {
+		Position position = positions[ply];
+		long key = getKey(position);
+		long start = nodes;
+		if (++nodes > maxNodes) {
+			stopped = true;
+			return;
+		}
+		if (turns[ply] == null) {
+			turns[ply] = new int[TurnGenerator.MAX_TURNS];
+			childKeys[ply] = new long[TurnGenerator.MAX_TURNS];
+		}
+		int[] plyTurns = turns[ply];
+		long[] keys = childKeys[ply];
+		int count = generator.generate(position, plyTurns);
+		if (count == 0) {
+			table.store(key, INFINITY, 0, 1);
+			return;
+		}
+		Position next = positions[ply + 1];
+		for (int i = 0; i < count; i++) {
+			next.copyFrom(position);
+			next.make(plyTurns[i]);
+			if (next.isGameOver()) {
+				table.store(key, 0, INFINITY, 1);
+				return;
+			}
+			keys[i] = getKey(next);
+		}
+		while (true) {
+			int proof = INFINITY;
+			int disproof = 0;
+			int second = INFINITY;
+			int best = 0;
+			int bestProof = 0;
+			for (int i = 0; i < count; i++) {
+				long numbers = table.probe(keys[i]);
+				int childProof = ProofTable.getProof(numbers);
+				int childDisproof = ProofTable.getDisproof(numbers);
+				disproof = Math.min(INFINITY, disproof + childProof);
+				if (childDisproof < proof) {
+					second = proof;
+					proof = childDisproof;
+					best = i;
+					bestProof = childProof;
+				} else if (childDisproof < second) {
+					second = childDisproof;
+				}
+			}
+			if (proof >= proofLimit || disproof >= disproofLimit || stopped || ply == MAX_PLY - 1) {
+				table.store(key, proof, disproof, nodes - start);
+				return;
+			}
+			int childProofLimit = disproofLimit >= INFINITY ? INFINITY : disproofLimit - disproof + bestProof;
+			int childDisproofLimit = second >= INFINITY ? proofLimit
+					: (int) Math.min(proofLimit, second + (long) second / EPSILON_DIVISOR + 1);
+			next.copyFrom(position);
+			next.make(plyTurns[best]);
+			mid(ply + 1, childProofLimit, childDisproofLimit);
+		}
+	}
+
+	/**
+	 * Follows a solved position to the end of the game. The winner plays a turn
+	 * that wins at once or leads to a lost position, the loser any turn. A
+	 * position whose numbers have been replaced in the table is solved again.
+	 *
+	 * @param position a solved position
+	 * @return the turns until the end of the game
+	 */
+	private int[] findLine(Position position) {
+		int[] found = new int[MAX_PLY];
+		int length = 0;
+		Position current = new Position();
+		current.copyFrom(position);
+		Position next = new Position();
+		while (length < MAX_PLY && !current.isGameOver()) {
+			long numbers = table.probe(getKey(current));
+			if (ProofTable.getProof(numbers) != 0 && ProofTable.getDisproof(numbers) != 0
+					&& solveNode(current) == UNKNOWN) {
+				break;
+			}
+			boolean won = ProofTable.getProof(table.probe(getKey(current))) == 0;
+			int turn = findTurn(current, next, won);
+			if (turn == 0 && solveNode(current) != UNKNOWN) {
+				turn = findTurn(current, next, won);
+			}
+			if (turn == 0) {
+				break;
+			}
+			found[length++] = turn;
+			current.make(turn);
+		}
+		return Arrays.copyOf(found, length);
+	}
+
+	/**
+	 * @param won true to find a turn into a lost position, false to find any turn
+	 *            into a won position
+	 * @return the turn or 0 if the table doesnt show one
+	 */
+	private int findTurn(Position position, Position next, boolean won) {
+		int count = generator.generate(position, lineTurns);
+		for (int i = 0; i < count; i++) {
+			next.copyFrom(position);
+			next.make(lineTurns[i]);
+			if (next.isGameOver()) {
+				return lineTurns[i];
+			}
+			long numbers = table.probe(getKey(next));
+			if (won ? ProofTable.getDisproof(numbers) == 0 : ProofTable.getProof(numbers) == 0) {
+				return lineTurns[i];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the turns from the solved position to the end of the game, played
+	 *         by the winner and the loser in turn, or no turns if the last search
+	 *         was not solved
+	 */
+	public int[] getLine() {
+		return line;
+	}
+
+	/**
+	 * @return the number of positions expanded by the last search
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 5) {
+			Terminal.printError("please enter a number of nodes and two figures and their positions for each player.");
+			return;
+		}
+		long maxNodes = Long.parseLong(args[0]);
+		Game game = new Game();
+		game.initializePlayers(args[1], args[2], args[3], args[4]);
+		for (int i = 5; i < args.length; i++) {
+			game.execute(args[i]);
+		}
+		game.getOutput().flush();
+		Position position = new Position(game);
+		ProofSearch search = new ProofSearch(64);
+		long start = System.nanoTime();
+		int result = search.solve(position, maxNodes);
+		long nanos = System.nanoTime() - start;
+		Terminal.printLine(result == WIN ? "win" : result == LOSS ? "loss" : "unknown");
+		Position current = new Position();
+		current.copyFrom(position);
+		for (int turn : search.getLine()) {
+			Terminal.printLine(String.join(", ", TurnCode.toCommands(turn, current)));
+			current.make(turn);
+		}
+		Terminal.printLine("nodes: " + search.getNodes());
+		Terminal.printLine("time: " + nanos / 1000000 + " ms");
+	}
+}
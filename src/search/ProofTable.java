@@ -0,0 +1,105 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table that stores the proof and disproof numbers of the
+ * positions of a {@link ProofSearch}. The entries are grouped in buckets of
+ * two. A new position replaces the entry of its bucket whose subtree took less
+ * work to search, so the numbers of expensive subtrees survive. An instance
+ * must not be shared between threads.
+ *
+ */
+public class ProofTable {
+	/**
+	 * the number of bytes of an entry
+	 */
+	private static final int ENTRY_BYTES = 20;
+	/**
+	 * the numbers of a position that is not in the table
+	 */
+	public static final long UNKNOWN = pack(1, 1);
+	private final long[] keys;
+	private final int[] proofs;
+	private final int[] disproofs;
+	/**
+	 * contains for each entry the number of positions searched below it
+	 */
+	private final int[] work;
+	/**
+	 * selects the first entry of a bucket from a hash key
+	 */
+	private final int mask;
+
+	/**
+	 * Creates a table which uses at most the given amount of memory.
+	 *
+	 * @param megabytes the memory budget in megabytes
+	 */
+	public ProofTable(int megabytes) {
+		long entries = Long.highestOneBit(Math.max(2L, (long) megabytes * 1024 * 1024 / ENTRY_BYTES));
+		int size = (int) Math.min(entries, 1 << 28);
+		keys = new long[size];
+		proofs = new int[size];
+		disproofs = new int[size];
+		work = new int[size];
+		mask = size - 2;
+	}
+
+	private static long pack(int proof, int disproof) {
+		return (long) proof << 32 | disproof;
+	}
+
+	public static int getProof(long numbers) {
+		return (int) (numbers >>> 32);
+	}
+
+	public static int getDisproof(long numbers) {
+		return (int) numbers;
+	}
+
+	/**
+	 * Looks up the numbers of the given key.
+	 *
+	 * @param key the hash key of a position
+	 * @return the proof and disproof numbers, see {@link #getProof(long)} and
+	 *         {@link #getDisproof(long)}, or {@link #UNKNOWN}
+	 */
+	public long probe(long key) {
+		int index = (int) key & mask;
+		if (keys[index] == key && work[index] != 0) {
+			return pack(proofs[index], disproofs[index]);
+		} else if (keys[index + 1] == key && work[index + 1] != 0) {
+			return pack(proofs[index + 1], disproofs[index + 1]);
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Stores the numbers of a position.
+	 *
+	 * @param key      the hash key of the position
+	 * @param proof    the proof number of the player in turn
+	 * @param disproof the disproof number of the player in turn
+	 * @param searched the number of positions searched below the position, at
+	 *                 least 1
+	 */
+	public void store(long key, int proof, int disproof, long searched) {
+		int index = (int) key & mask;
+		if (keys[index + 1] == key || keys[index] != key && work[index + 1] < work[index]) {
+			++index;
+		}
+		keys[index] = key;
+		proofs[index] = proof;
+		disproofs[index] = disproof;
+		work[index] = (int) Math.min(Integer.MAX_VALUE, Math.max(1, searched));
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		Arrays.fill(work, 0);
+	}
+
+}
@@ -0,0 +1,31 @@
+package search;
+
+import java.util.Random;
+
+import game.Position;
+import game.TurnGenerator;
+
+/**
+ * Chooses one of the legal turns at random.
+ *
+ */
+public class RandomEngine implements Engine {
+	private final Random random;
+	private final TurnGenerator generator;
+	private final int[] turns;
+
+	/**
+	 * @param seed the seed of the random generator
+	 */
+	public RandomEngine(long seed) {
+		random = new Random(seed);
+		generator = new TurnGenerator();
+		turns = new int[TurnGenerator.MAX_TURNS];
+	}
+
+	@Override
+	public int choose(Position position) {
+		int count = generator.generate(position, turns);
+		return count == 0 ? 0 : turns[random.nextInt(count)];
+	}
+}
@@ -0,0 +1,87 @@
+package search;
+
+import java.util.ArrayList;
+
+import game.Position;
+import game.TurnCode;
+
+/**
+ * Contains the result of a search: the best turn, its score, the expected
+ * continuation and some statistics.
+ *
+ */
+public class SearchResult {
+	/**
+	 * the best turn encoded by {@link TurnCode}, or 0 if there is no legal turn
+	 */
+	private int turn;
+	/**
+	 * the score of the best turn from the view of the player in turn
+	 */
+	private int score;
+	/**
+	 * the depth of the last completed iteration
+	 */
+	private int depth;
+	/**
+	 * the number of searched positions
+	 */
+	private long nodes;
+	/**
+	 * the principal variation, starting with the best turn
+	 */
+	private int[] pv;
+
+	public SearchResult(int turn, int score, int depth, long nodes, int[] pv) {
+		this.turn = turn;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.pv = pv;
+	}
+
+	public int getTurn() {
+		return turn;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public int[] getPv() {
+		return pv;
+	}
+
+	/**
+	 * @return true if the score is a forced win for the player in turn
+	 */
+	public boolean isWin() {
+		return score > AlphaBeta.WIN - AlphaBeta.MAX_PLY;
+	}
+
+	/**
+	 * @return true if the score is a forced loss for the player in turn
+	 */
+	public boolean isLoss() {
+		return score < -AlphaBeta.WIN + AlphaBeta.MAX_PLY;
+	}
+
+	/**
+	 * Creates the commands which play the best turn.
+	 *
+	 * @param position the position the search started from
+	 * @return the commands of the best turn
+	 */
+	public ArrayList<String> getCommands(Position position) {
+		return TurnCode.toCommands(turn, position);
+	}
+
+}
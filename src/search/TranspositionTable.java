@@ -0,0 +1,149 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table that stores search results by the hash key of a
+ * position. Each entry occupies two longs, the data and the key combined with
+ * the data by an exclusive or. A reader accepts an entry only if both longs
+ * fit together, so threads can share the table without locks: an entry that is
+ * being overwritten by another thread is simply seen as missing.
+ * <p>
+ * The entries are grouped in buckets of two. The first entry of a bucket keeps
+ * the deepest result of the current search, the second one always takes the
+ * newest result, so deep results survive while recent ones are still found.
+ *
+ */
+public class TranspositionTable {
+	/**
+	 * the bound of a stored score
+	 */
+	public static final int LOWER = 1;
+	public static final int UPPER = 2;
+	public static final int EXACT = 3;
+	/**
+	 * the number of bytes of an entry
+	 */
+	private static final int ENTRY_BYTES = 16;
+	private static final int TURN_BITS = 29;
+	private static final int SCORE_SHIFT = TURN_BITS;
+	private static final int DEPTH_SHIFT = SCORE_SHIFT + 16;
+	private static final int BOUND_SHIFT = DEPTH_SHIFT + 8;
+	private static final int AGE_SHIFT = BOUND_SHIFT + 2;
+	/**
+	 * contains the keys and data of all entries, four longs per bucket
+	 */
+	private long[] table;
+	/**
+	 * selects the first long of a bucket from a hash key
+	 */
+	private int mask;
+	/**
+	 * the age of the current search, stored with each entry
+	 */
+	private int age;
+
+	/**
+	 * Creates a table which uses at most the given amount of memory.
+	 *
+	 * @param megabytes the memory budget in megabytes
+	 */
+	public TranspositionTable(int megabytes) {
+		long buckets = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / (2 * ENTRY_BYTES)));
+		buckets = Math.min(buckets, 1 << 28);
+		table = new long[(int) buckets * 4];
+		mask = (int) buckets - 1 << 2;
+	}
+
+	/**
+	 * Starts a new search. Entries of older searches are replaced first.
+	 */
+	public void newSearch() {
+		age = age + 1 & 63;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+	}
+
+	/**
+	 * Looks up the entry of the given key.
+	 *
+	 * @param key the hash key of a position
+	 * @return the data of the entry or 0 if the table doesnt contain the key
+	 */
+	public long probe(long key) {
+		int index = (int) key & mask;
+		for (int i = index; i < index + 4; i += 2) {
+			long data = table[i + 1];
+			if ((table[i] ^ data) == key && data != 0) {
+				return data;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Stores a search result. An entry of the same position is replaced unless it
+	 * comes from a deeper search of the current search. A new result that is
+	 * deeper than the first entry of the bucket moves that entry to the second
+	 * place.
+	 *
+	 * @param key   the hash key of the position
+	 * @param turn  the best turn or 0
+	 * @param score the score, between -32768 and 32767
+	 * @param depth the remaining depth of the search, between 0 and 255
+	 * @param bound {@link #LOWER}, {@link #UPPER} or {@link #EXACT}
+	 */
+	public void store(long key, int turn, int score, int depth, int bound) {
+		int index = (int) key & mask;
+		long data = (turn & (1L << TURN_BITS) - 1) | (score & 0xFFFFL) << SCORE_SHIFT
+				| (long) depth << DEPTH_SHIFT | (long) bound << BOUND_SHIFT | (long) age << AGE_SHIFT;
+		long first = table[index + 1];
+		if ((table[index] ^ first) == key) {
+			if (getAge(first) != age || depth >= getDepth(first) || bound == EXACT) {
+				table[index] = key ^ data;
+				table[index + 1] = data;
+			}
+		} else if (first == 0 || getAge(first) != age || depth >= getDepth(first)) {
+			table[index + 2] = table[index];
+			table[index + 3] = first;
+			table[index] = key ^ data;
+			table[index + 1] = data;
+		} else {
+			table[index + 2] = key ^ data;
+			table[index + 3] = data;
+		}
+	}
+
+	/**
+	 * @return the number of entries the table can hold
+	 */
+	public int capacity() {
+		return table.length / 2;
+	}
+
+	public static int getTurn(long data) {
+		return (int) (data & (1L << TURN_BITS) - 1);
+	}
+
+	public static int getScore(long data) {
+		return (short) (data >>> SCORE_SHIFT);
+	}
+
+	public static int getDepth(long data) {
+		return (int) (data >>> DEPTH_SHIFT & 255);
+	}
+
+	public static int getBound(long data) {
+		return (int) (data >>> BOUND_SHIFT & 3);
+	}
+
+	private static int getAge(long data) {
+		return (int) (data >>> AGE_SHIFT & 63);
+	}
+
+}
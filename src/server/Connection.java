@@ -0,0 +1,48 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The state of a client connection, owned by the {@link EventLoop} that reads
+ * from it.
+ *
+ */
+class Connection {
+	final SocketChannel channel;
+	SelectionKey key;
+	/**
+	 * the characters of the line that has not been completed yet
+	 */
+	final StringBuilder line;
+	/**
+	 * the output that could not be written yet, or null
+	 */
+	ByteBuffer pending;
+	/**
+	 * the session whose commands are sent, null before the first line
+	 */
+	Session session;
+	/**
+	 * true if the connection is closed once the pending output is written
+	 */
+	boolean closing;
+
+	Connection(SocketChannel channel) {
+		this.channel = channel;
+		this.line = new StringBuilder();
+	}
+
+	/**
+	 * Closes the channel. Can be called from any thread.
+	 */
+	void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// the channel is closed anyway
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Serves many connections on one thread with a selector. The lines that arrive
+ * together are executed one after the other and their output is written at
+ * once. A command takes only microseconds, so it is executed on the thread of
+ * the loop.
+ *
+ */
+class EventLoop implements Runnable {
+	/**
+	 * the maximum length of a line, longer lines close the connection
+	 */
+	private static final int MAX_LINE = 1024;
+	private final Selector selector;
+	private final SessionRegistry registry;
+	/**
+	 * the accepted channels that have not been registered with the selector yet
+	 */
+	private final Queue<SocketChannel> accepted;
+	private final ByteBuffer readBuffer;
+	private final StringBuilder reply;
+
+	EventLoop(SessionRegistry registry) throws IOException {
+		this.selector = Selector.open();
+		this.registry = registry;
+		this.accepted = new ConcurrentLinkedQueue<SocketChannel>();
+		this.readBuffer = ByteBuffer.allocateDirect(8192);
+		this.reply = new StringBuilder();
+	}
+
+	/**
+	 * Hands an accepted channel over to this loop. Can be called from any thread.
+	 *
+	 * @param channel a non-blocking channel
+	 */
+	void add(SocketChannel channel) {
+		accepted.add(channel);
+		selector.wakeup();
+	}
+
+	/**
+	 * Stops the loop and closes its connections.
+	 */
+	void stop() {
+		try {
+			for (SelectionKey key : selector.keys()) {
+				((Connection) key.attachment()).close();
+			}
+			selector.close();
+		} catch (IOException | ClosedSelectorException e) {
+			// already stopped
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (selector.isOpen()) {
+				selector.select();
+				registerAccepted();
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					Connection connection = (Connection) key.attachment();
+					try {
+						if (key.isValid() && key.isWritable()) {
+							write(connection);
+						}
+						if (key.isValid() && key.isReadable()) {
+							read(connection);
+						}
+					} catch (IOException e) {
+						disconnect(connection);
+					}
+				}
+			}
+		} catch (IOException | ClosedSelectorException e) {
+			// the loop has been stopped
+		}
+	}
+
+	private void registerAccepted() {
+		SocketChannel channel;
+		while ((channel = accepted.poll()) != null) {
+			Connection connection = new Connection(channel);
+			try {
+				connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+			} catch (IOException e) {
+				connection.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads the available bytes and executes the completed lines.
+	 */
+	private void read(Connection connection) throws IOException {
+		readBuffer.clear();
+		int count = connection.channel.read(readBuffer);
+		if (count < 0) {
+			disconnect(connection);
+			return;
+		}
+		readBuffer.flip();
+		reply.setLength(0);
+		StringBuilder line = connection.line;
+		while (readBuffer.hasRemaining() && !connection.closing) {
+			char c = (char) (readBuffer.get() & 0xFF);
+			if (c == '\n') {
+				int length = line.length();
+				if (length > 0 && line.charAt(length - 1) == '\r') {
+					line.setLength(length - 1);
+				}
+				reply.append(handleLine(connection, line.toString()));
+				line.setLength(0);
+			} else if (line.length() == MAX_LINE) {
+				reply.append("Error, the line is too long.").append(System.lineSeparator());
+				connection.closing = true;
+			} else {
+				line.append(c);
+			}
+		}
+		send(connection, reply);
+	}
+
+	/**
+	 * Opens a session with the first line of a connection, then executes the
+	 * commands of the session.
+	 *
+	 * @return the output
+	 */
+	private String handleLine(Connection connection, String line) {
+		Session session = connection.session;
+		if (session == null) {
+			return open(connection, line);
+		}
+		String output = session.execute(line);
+		if (session.isClosed()) {
+			registry.remove(session);
+			connection.closing = true;
+		}
+		return output;
+	}
+
+	/**
+	 * Creates a session from the four figures of {@link game.Game#main(String[])}
+	 * separated by spaces or resumes a session with {@code resume <id>}.
+	 *
+	 * @return the id of the session or an error
+	 */
+	private String open(Connection connection, String line) {
+		String[] words = line.trim().split(" +");
+		Session session;
+		if (words.length == 2 && words[0].equals("resume")) {
+			session = registry.get(words[1]);
+			if (session == null || session.isClosed()) {
+				return "Error, there is no session with this id." + System.lineSeparator();
+			}
+		} else if (words.length == 4) {
+			session = registry.create();
+			String output = session.initialize(words);
+			if (!session.isInitialized()) {
+				registry.remove(session);
+				return output;
+			}
+		} else {
+			return "Error, please enter two figures and their positions for each player." + System.lineSeparator();
+		}
+		Connection previous = session.attach(connection);
+		if (previous != null && previous != connection) {
+			previous.close();
+		}
+		connection.session = session;
+		return "session " + session.getId() + System.lineSeparator();
+	}
+
+	/**
+	 * Writes the given output after the pending output. If the channel cant take
+	 * everything, the rest is written when it becomes writable and no more lines
+	 * are read until then.
+	 */
+	private void send(Connection connection, CharSequence output) throws IOException {
+		if (output.length() > 0) {
+			byte[] bytes = output.toString().getBytes(StandardCharsets.UTF_8);
+			ByteBuffer pending = connection.pending;
+			if (pending == null) {
+				connection.pending = ByteBuffer.wrap(bytes);
+			} else {
+				ByteBuffer joined = ByteBuffer.allocate(pending.remaining() + bytes.length);
+				connection.pending = joined.put(pending).put(bytes).flip();
+			}
+		}
+		write(connection);
+	}
+
+	private void write(Connection connection) throws IOException {
+		ByteBuffer pending = connection.pending;
+		if (pending != null) {
+			connection.channel.write(pending);
+			if (pending.hasRemaining()) {
+				connection.key.interestOps(SelectionKey.OP_WRITE);
+				return;
+			}
+			connection.pending = null;
+		}
+		if (connection.closing) {
+			disconnect(connection);
+		} else if (connection.key.interestOps() != SelectionKey.OP_READ) {
+			connection.key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+
+	/**
+	 * Closes the connection. Its session stays open until it is evicted or
+	 * resumed.
+	 */
+	private void disconnect(Connection connection) {
+		if (connection.session != null) {
+			connection.session.detach(connection);
+		}
+		connection.key.cancel();
+		connection.close();
+	}
+}
@@ -0,0 +1,133 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import edu.kit.informatik.Terminal;
+
+/**
+ * Hosts many games at the same time over TCP. A client sends the four figures
+ * of {@link game.Game#main(String[])} separated by spaces and receives the id
+ * of its session as {@code session <id>}. Then every line is a command of the
+ * terminal and is answered with the same output. A client that has lost its
+ * connection continues with {@code resume <id>}. A session ends when the game
+ * is over or quit, or when it has been idle for too long.
+ *
+ * <p>
+ * The connections are spread over a few threads that each serve many
+ * connections with a selector, so the number of games is not limited by the
+ * number of threads.
+ *
+ * <p>
+ * Usage: {@code GameServer [port] [threads] [idle-seconds]}
+ *
+ */
+public class GameServer {
+	private static final int DEFAULT_PORT = 7777;
+	private static final int DEFAULT_IDLE_SECONDS = 600;
+	private static final int BACKLOG = 1024;
+	private final SessionRegistry registry;
+	private final EventLoop[] loops;
+	private final long idleMillis;
+	private ServerSocketChannel server;
+	private ScheduledExecutorService evictor;
+
+	/**
+	 * @param threads    the number of threads serving connections
+	 * @param idleMillis the time after which a session without commands is
+	 *                   evicted
+	 * @throws IOException if a selector cant be opened
+	 */
+	public GameServer(int threads, long idleMillis) throws IOException {
+		this.registry = new SessionRegistry();
+		this.loops = new EventLoop[Math.max(1, threads)];
+		for (int i = 0; i < loops.length; i++) {
+			loops[i] = new EventLoop(registry);
+		}
+		this.idleMillis = idleMillis;
+	}
+
+	/**
+	 * Starts to accept connections on the given address.
+	 *
+	 * @param address the address, a port of 0 chooses a free port
+	 * @throws IOException if the address cant be bound
+	 */
+	public void start(InetSocketAddress address) throws IOException {
+		server = ServerSocketChannel.open();
+		server.bind(address, BACKLOG);
+		for (int i = 0; i < loops.length; i++) {
+			new Thread(loops[i], "game-server-" + i).start();
+		}
+		new Thread(this::accept, "game-server-accept").start();
+		evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "game-server-evict");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long period = Math.max(1, idleMillis / 4);
+		evictor.scheduleAtFixedRate(() -> registry.evictIdle(idleMillis * 1000000), period, period,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Accepts connections and hands them to the loops in turn.
+	 */
+	private void accept() {
+		int next = 0;
+		while (server.isOpen()) {
+			try {
+				SocketChannel channel = server.accept();
+				channel.configureBlocking(false);
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				loops[next].add(channel);
+				next = (next + 1) % loops.length;
+			} catch (IOException e) {
+				// the server has been stopped or the client is gone already
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting connections and closes all connections. The sessions are
+	 * dropped.
+	 */
+	public void stop() {
+		try {
+			server.close();
+		} catch (IOException e) {
+			// already closed
+		}
+		evictor.shutdownNow();
+		for (EventLoop loop : loops) {
+			loop.stop();
+		}
+	}
+
+	/**
+	 * @return the port the server listens on
+	 */
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+	public SessionRegistry getRegistry() {
+		return registry;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long idleSeconds = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_IDLE_SECONDS;
+		GameServer gameServer = new GameServer(threads, idleSeconds * 1000);
+		gameServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		Terminal.printLine("listening on port " + gameServer.getPort());
+	}
+}
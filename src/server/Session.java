@@ -0,0 +1,144 @@
+package server;
+
+import game.Game;
+import game.MemorySink;
+
+/**
+ * A game hosted by the {@link GameServer}. The commands of a session are
+ * executed one at a time, even if the session is resumed on another
+ * connection, and its output is collected until the connection sends it.
+ *
+ */
+public class Session {
+	private final String id;
+	private final Game game;
+	private final MemorySink output;
+	/**
+	 * the time of the last command in nanoseconds, see {@link System#nanoTime()}
+	 */
+	private volatile long lastActive;
+	private volatile boolean closed;
+	/**
+	 * the connection that sends the commands, or null while the session is
+	 * detached
+	 */
+	private Connection connection;
+
+	/**
+	 * Creates a session whose game has not been set up yet.
+	 *
+	 * @param id the id of the session
+	 */
+	Session(String id) {
+		this.id = id;
+		this.output = new MemorySink();
+		this.game = new Game(output);
+		this.lastActive = System.nanoTime();
+	}
+
+	/**
+	 * Places the figures of both players.
+	 *
+	 * @param figures the four figures of {@link Game#initializePlayers}
+	 * @return the output, an error if a figure is not valid
+	 */
+	synchronized String initialize(String[] figures) {
+		try {
+			game.initializePlayers(figures[0], figures[1], figures[2], figures[3]);
+		} catch (RuntimeException e) {
+			output.printError("please enter two figures and their positions for each player.");
+		}
+		return takeOutput();
+	}
+
+	/**
+	 * @return true if the figures have been placed
+	 */
+	synchronized boolean isInitialized() {
+		return game.getTurn() != null;
+	}
+
+	/**
+	 * Executes a command like the terminal loop of {@link Game#main(String[])}
+	 * does. A command with missing or malformed arguments is answered with an
+	 * error instead of ending the game. The session is closed when the game is
+	 * over or the command quits it.
+	 *
+	 * @param command the command
+	 * @return the output of the command
+	 */
+	synchronized String execute(String command) {
+		if (closed) {
+			return "Error, the session has expired." + System.lineSeparator();
+		}
+		lastActive = System.nanoTime();
+		boolean quit;
+		try {
+			quit = !game.execute(command);
+		} catch (RuntimeException e) {
+			output.printLine("Error, please enter a valid command.");
+			quit = false;
+		}
+		if (!game.isGameOn()) {
+			output.printLine(game.getActivePlayer().getName() + " wins");
+		}
+		if (quit || !game.isGameOn()) {
+			closed = true;
+		}
+		return takeOutput();
+	}
+
+	private String takeOutput() {
+		String text = output.getOutput();
+		output.clear();
+		return text;
+	}
+
+	/**
+	 * Attaches the session to a connection and detaches it from the previous one.
+	 *
+	 * @param connection the connection
+	 * @return the previous connection or null
+	 */
+	synchronized Connection attach(Connection connection) {
+		Connection previous = this.connection;
+		this.connection = connection;
+		lastActive = System.nanoTime();
+		return previous;
+	}
+
+	/**
+	 * Detaches the session from the given connection if it is still attached to
+	 * it.
+	 *
+	 * @param connection the connection
+	 */
+	synchronized void detach(Connection connection) {
+		if (this.connection == connection) {
+			this.connection = null;
+		}
+	}
+
+	/**
+	 * Closes the session and its connection.
+	 */
+	synchronized void close() {
+		closed = true;
+		if (connection != null) {
+			connection.close();
+			connection = null;
+		}
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public long getLastActive() {
+		return lastActive;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+}
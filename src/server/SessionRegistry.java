@@ -0,0 +1,76 @@
+package server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the open sessions of a {@link GameServer} by their id. The ids are
+ * random, so a client can only resume its own sessions.
+ *
+ */
+public class SessionRegistry {
+	private final Map<String, Session> sessions;
+
+	public SessionRegistry() {
+		sessions = new ConcurrentHashMap<String, Session>();
+	}
+
+	/**
+	 * Creates a session with a new id and registers it.
+	 *
+	 * @return the session
+	 */
+	public Session create() {
+		while (true) {
+			String id = Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+			Session session = new Session(id);
+			if (sessions.putIfAbsent(id, session) == null) {
+				return session;
+			}
+		}
+	}
+
+	/**
+	 * @param id the id of a session
+	 * @return the session or null if it has been closed or evicted
+	 */
+	public Session get(String id) {
+		return sessions.get(id);
+	}
+
+	/**
+	 * Removes the given session.
+	 *
+	 * @param session the session
+	 */
+	public void remove(Session session) {
+		sessions.remove(session.getId(), session);
+	}
+
+	/**
+	 * Closes and removes the sessions that have not executed a command for the
+	 * given time.
+	 *
+	 * @param idleNanos the time in nanoseconds
+	 * @return the number of evicted sessions
+	 */
+	public int evictIdle(long idleNanos) {
+		long now = System.nanoTime();
+		int evicted = 0;
+		for (Session session : sessions.values()) {
+			if (now - session.getLastActive() > idleNanos && sessions.remove(session.getId(), session)) {
+				session.close();
+				++evicted;
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * @return the number of open sessions
+	 */
+	public int size() {
+		return sessions.size();
+	}
+}
@@ -0,0 +1,223 @@
+package tournament;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import edu.kit.informatik.Terminal;
+import game.Position;
+import game.TurnCode;
+import search.Engine;
+import search.OpeningBook;
+import search.RandomEngine;
+
+/**
+ * Builds an {@link OpeningBook} from games an engine plays against itself. The
+ * figures are placed at random like in a {@link Tournament}. The reply played
+ * in each of the first positions of a game is counted with the result of the
+ * game. One in {@link #EXPLORATION} of these replies is chosen at random, so
+ * the book also knows how other replies did. Positions which are rotations or
+ * reflections of each other are counted together.
+ *
+ * <p>
+ * Usage:
+ * {@code BookBuilder <book> <games> <engine> [-plies <n>] [-seed <n>] [-threads <n>] [-minimum <n>]},
+ * where plies is the number of turns of each game that are counted and minimum
+ * the number of games a position needs to be stored.
+ *
+ */
+public class BookBuilder {
+	public static final int EXPLORATION = 8;
+	private final String engine;
+	private final int plies;
+	private final long seed;
+	/**
+	 * the number of games and the points of each reply of each position
+	 */
+	private final Map<Long, Map<Integer, int[]>> positions = new HashMap<Long, Map<Integer, int[]>>();
+
+	/**
+	 * @param engine the description of the engine, see {@link Engine#create}
+	 * @param plies  the number of turns of each game that are counted
+	 * @param seed   the seed of the games
+	 */
+	public BookBuilder(String engine, int plies, long seed) {
+		this.engine = engine;
+		this.plies = plies;
+		this.seed = seed;
+	}
+
+	/**
+	 * Plays the given number of games.
+	 *
+	 * @param games   the number of games
+	 * @param threads the number of threads
+	 */
+	public void run(int games, int threads) {
+		List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+		for (int game = 0; game < games; game++) {
+			int g = game;
+			tasks.add(ForkJoinTask.adapt(() -> play(g)));
+		}
+		ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+		try {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Plays a game and counts its first turns.
+	 *
+	 * @param game the number of the game
+	 */
+	private void play(int game) {
+		Random random = new Random(Tournament.mix(Tournament.mix(seed) + game));
+		Engine player = Engine.create(engine, random.nextLong());
+		Engine explorer = new RandomEngine(random.nextLong());
+		Position position = Tournament.createOpening(random);
+		long[] keys = new long[plies];
+		int[] turns = new int[plies];
+		int[] sides = new int[plies];
+		int counted = 0;
+		int winner = -1;
+		for (int ply = 0; ply < Tournament.MAX_TURNS && winner < 0; ply++) {
+			int side = position.getSide();
+			int turn = ply < plies && random.nextInt(EXPLORATION) == 0 ? explorer.choose(position)
+					: player.choose(position);
+			if (turn == 0) {
+				winner = side ^ 1;
+				break;
+			}
+			int symmetry = position.getCanonicalSymmetry();
+			if (ply < plies && position.getKey(symmetry) != 0) {
+				keys[counted] = position.getKey(symmetry);
+				turns[counted] = TurnCode.transform(turn, symmetry);
+				sides[counted++] = side;
+			}
+			position.make(turn);
+			if (position.isGameOver()) {
+				winner = position.getWinner();
+			}
+		}
+		add(keys, turns, sides, counted, winner);
+	}
+
+	/**
+	 * Counts the turns of a game.
+	 *
+	 * @param winner the side that won, or -1 for a draw
+	 */
+	private synchronized void add(long[] keys, int[] turns, int[] sides, int count, int winner) {
+		for (int i = 0; i < count; i++) {
+			int[] reply = positions.computeIfAbsent(keys[i], key -> new HashMap<Integer, int[]>())
+					.computeIfAbsent(turns[i], turn -> new int[2]);
+			++reply[0];
+			reply[1] += winner == sides[i] ? 2 : winner < 0 ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Writes the positions played in at least the given number of games with
+	 * their most played replies.
+	 *
+	 * @param path    the path of the book
+	 * @param minimum the number of games a position needs
+	 * @return the number of positions written
+	 * @throws IOException if the book cant be written
+	 */
+	public synchronized int write(Path path, int minimum) throws IOException {
+		TreeMap<Long, int[][]> selected = new TreeMap<Long, int[][]>();
+		Map<Long, Integer> games = new HashMap<Long, Integer>();
+		for (Map.Entry<Long, Map<Integer, int[]>> position : positions.entrySet()) {
+			List<int[]> replies = new ArrayList<int[]>();
+			int total = 0;
+			for (Map.Entry<Integer, int[]> reply : position.getValue().entrySet()) {
+				replies.add(new int[] { reply.getKey(), reply.getValue()[0], reply.getValue()[1] });
+				total += reply.getValue()[0];
+			}
+			if (total >= minimum) {
+				replies.sort((first, second) -> first[1] != second[1] ? second[1] - first[1]
+						: first[2] != second[2] ? second[2] - first[2] : Integer.compare(first[0], second[0]));
+				selected.put(position.getKey(),
+						replies.subList(0, Math.min(OpeningBook.MAX_REPLIES, replies.size())).toArray(new int[0][]));
+				games.put(position.getKey(), total);
+			}
+		}
+		long[] keys = new long[selected.size()];
+		int[] counts = new int[keys.length];
+		int[][][] replies = new int[keys.length][][];
+		int i = 0;
+		for (Map.Entry<Long, int[][]> position : selected.entrySet()) {
+			keys[i] = position.getKey();
+			counts[i] = games.get(position.getKey());
+			replies[i++] = position.getValue();
+		}
+		OpeningBook.write(path, keys, counts, replies);
+		return keys.length;
+	}
+
+	public static void main(String[] args) {
+		int plies = 6;
+		long seed = 1;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int minimum = 1;
+		Path path;
+		int games;
+		String engine;
+		try {
+			path = Paths.get(args[0]);
+			games = Integer.parseInt(args[1]);
+			engine = args[2];
+			Engine.create(engine, 0);
+			for (int i = 3; i < args.length; i++) {
+				if (args[i].equals("-plies")) {
+					plies = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-seed")) {
+					seed = Long.parseLong(args[++i]);
+				} else if (args[i].equals("-threads")) {
+					threads = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-minimum")) {
+					minimum = Integer.parseInt(args[++i]);
+				} else {
+					throw new IllegalArgumentException(args[i]);
+				}
+			}
+		} catch (RuntimeException e) {
+			games = 0;
+			path = null;
+			engine = null;
+		}
+		if (games < 1 || plies < 1) {
+			Terminal.printError("please enter a book, the number of games and an engine.");
+			return;
+		}
+		BookBuilder builder = new BookBuilder(engine, plies, seed);
+		long start = System.nanoTime();
+		builder.run(games, threads);
+		try {
+			Terminal.printLine("positions: " + builder.write(path, minimum));
+		} catch (IOException e) {
+			Terminal.printError(e.getMessage());
+			return;
+		}
+		Terminal.printLine("time: " + (System.nanoTime() - start) / 1000000 + " ms");
+	}
+}
@@ -0,0 +1,146 @@
+package tournament;
+
+import edu.kit.informatik.Terminal;
+
+/**
+ * Summarizes the results of a {@link Tournament}: wins, draws and losses of
+ * each pair and of each engine, and Elo ratings with 95% error bars. The
+ * ratings are fitted to the results of all pairs and average to 0. One virtual
+ * draw per pair keeps the rating of an engine that never lost finite.
+ *
+ */
+public final class Standings {
+	/**
+	 * the number of standard errors of a 95% confidence interval
+	 */
+	private static final double Z = 1.96;
+	private static final int ITERATIONS = 1000;
+
+	private Standings() {
+	}
+
+	/**
+	 * @param score the share of points, between 0 and 1
+	 * @return the Elo difference that gives the expected share
+	 */
+	public static double toElo(double score) {
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	/**
+	 * @param difference an Elo difference
+	 * @return the expected share of points
+	 */
+	public static double toScore(double difference) {
+		return 1 / (1 + Math.pow(10, -difference / 400));
+	}
+
+	/**
+	 * @param counts the number of losses, draws and wins
+	 * @return the Elo difference and the half width of its error bar, both
+	 *         counting one virtual draw
+	 */
+	public static double[] estimate(long[] counts) {
+		double games = counts[Tournament.LOSS] + counts[Tournament.DRAW] + counts[Tournament.WIN] + 1;
+		double draws = counts[Tournament.DRAW] + 1;
+		double score = (counts[Tournament.WIN] + 0.5 * draws) / games;
+		double variance = (counts[Tournament.WIN] * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+				+ counts[Tournament.LOSS] * score * score) / games;
+		double margin = Z * Math.sqrt(variance / games);
+		double limit = 0.5 / games;
+		double low = clamp(score - margin, limit);
+		double high = clamp(score + margin, limit);
+		return new double[] { toElo(score), (toElo(high) - toElo(low)) / 2 };
+	}
+
+	private static double clamp(double score, double limit) {
+		return Math.max(limit, Math.min(1 - limit, score));
+	}
+
+	/**
+	 * Fits a rating to each engine so that the expected shares of points match
+	 * the results.
+	 *
+	 * @param engines the number of engines
+	 * @param pairs   the first and second engine of each pair
+	 * @param counts  the losses, draws and wins of each pair from the view of its
+	 *                first engine
+	 * @return the rating of each engine
+	 */
+	public static double[] fitRatings(int engines, int[][] pairs, long[][] counts) {
+		double[] ratings = new double[engines];
+		double[] points = new double[engines];
+		double[] games = new double[engines];
+		for (int pair = 0; pair < pairs.length; pair++) {
+			long[] count = counts[pair];
+			double played = count[Tournament.LOSS] + count[Tournament.DRAW] + count[Tournament.WIN] + 1;
+			double score = count[Tournament.WIN] + 0.5 * count[Tournament.DRAW] + 0.5;
+			points[pairs[pair][0]] += score;
+			points[pairs[pair][1]] += played - score;
+			games[pairs[pair][0]] += played;
+			games[pairs[pair][1]] += played;
+		}
+		for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+			double[] expected = new double[engines];
+			for (int pair = 0; pair < pairs.length; pair++) {
+				long[] count = counts[pair];
+				double played = count[Tournament.LOSS] + count[Tournament.DRAW] + count[Tournament.WIN] + 1;
+				int first = pairs[pair][0];
+				int second = pairs[pair][1];
+				double score = played * toScore(ratings[first] - ratings[second]);
+				expected[first] += score;
+				expected[second] += played - score;
+			}
+			double mean = 0;
+			for (int engine = 0; engine < engines; engine++) {
+				ratings[engine] += 400 * (points[engine] - expected[engine]) / Math.max(1, games[engine]);
+				mean += ratings[engine] / engines;
+			}
+			for (int engine = 0; engine < engines; engine++) {
+				ratings[engine] -= mean;
+			}
+		}
+		return ratings;
+	}
+
+	/**
+	 * Prints the table of the pairs and the table of the engines.
+	 *
+	 * @param tournament a tournament that has been run
+	 */
+	public static void print(Tournament tournament) {
+		String[] engines = tournament.getEngines();
+		int[][] pairs = tournament.getPairs();
+		long[][] counts = new long[pairs.length][3];
+		long[][] totals = new long[engines.length][3];
+		for (int pair = 0; pair < pairs.length; pair++) {
+			for (int result : tournament.getResults()[pair]) {
+				if (result >= 0) {
+					++counts[pair][result];
+					++totals[pairs[pair][0]][result];
+					++totals[pairs[pair][1]][Tournament.WIN - result];
+				}
+			}
+		}
+		Terminal.printLine(String.format("%-32s %6s %6s %6s %8s %14s", "pair", "W", "D", "L", "score", "Elo"));
+		for (int pair = 0; pair < pairs.length; pair++) {
+			String name = engines[pairs[pair][0]] + " - " + engines[pairs[pair][1]];
+			Terminal.printLine(format(name, counts[pair], estimate(counts[pair])));
+		}
+		Terminal.printLine("");
+		double[] ratings = fitRatings(engines.length, pairs, counts);
+		Terminal.printLine(String.format("%-32s %6s %6s %6s %8s %14s", "engine", "W", "D", "L", "score", "rating"));
+		for (int engine = 0; engine < engines.length; engine++) {
+			double[] estimate = { ratings[engine], estimate(totals[engine])[1] };
+			Terminal.printLine(format(engines[engine], totals[engine], estimate));
+		}
+	}
+
+	private static String format(String name, long[] counts, double[] estimate) {
+		long games = counts[Tournament.LOSS] + counts[Tournament.DRAW] + counts[Tournament.WIN];
+		String score = games == 0 ? "-"
+				: String.format("%.1f%%", 100.0 * (counts[Tournament.WIN] + 0.5 * counts[Tournament.DRAW]) / games);
+		return String.format("%-32s %6d %6d %6d %8s %6.0f +- %4.0f", name, counts[Tournament.WIN],
+				counts[Tournament.DRAW], counts[Tournament.LOSS], score, estimate[0], estimate[1]);
+	}
+}
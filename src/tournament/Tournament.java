@@ -0,0 +1,371 @@
+package tournament;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import archive.RecordWriter;
+import data.BitBoard;
+import edu.kit.informatik.Terminal;
+import game.Game;
+import game.NullSink;
+import game.Position;
+import game.TurnCode;
+import search.Engine;
+
+/**
+ * Plays games between every pair of engines, see {@link Engine#create}. Each
+ * pair plays the same number of games, both engines start every other game.
+ * The figures are placed at random for each game. Every game has its own seed
+ * derived from the seed of the tournament, so a game is played the same way
+ * no matter which thread plays it and when. The games are played on a
+ * work-stealing fork-join pool.
+ *
+ * <p>
+ * The result of every game is appended to a checkpoint file if one is given.
+ * A tournament started again with the same checkpoint and settings skips the
+ * games found in it. Every finished game is appended to an archive if one is
+ * given, see {@link RecordWriter}, in the order the games end.
+ *
+ * <p>
+ * Usage:
+ * {@code Tournament <games> <engine> <engine>... [-seed <n>] [-threads <n>] [-checkpoint <file>] [-archive <file>]},
+ * where games is the number of games of each pair.
+ *
+ */
+public class Tournament {
+	/**
+	 * the number of turns after which a game is a draw
+	 */
+	public static final int MAX_TURNS = 200;
+	/**
+	 * the result of a game from the view of the first engine of the pair
+	 */
+	public static final int LOSS = 0;
+	public static final int DRAW = 1;
+	public static final int WIN = 2;
+	private static final int NOT_PLAYED = -1;
+	private final String[] engines;
+	private final int games;
+	private final long seed;
+	/**
+	 * the first and second engine of each pair
+	 */
+	private final int[][] pairs;
+	/**
+	 * the result of each game of each pair
+	 */
+	private final int[][] results;
+	private BufferedWriter checkpoint;
+	private RecordWriter archive;
+
+	/**
+	 * @param engines the descriptions of the engines
+	 * @param games   the number of games of each pair
+	 * @param seed    the seed of the tournament
+	 */
+	public Tournament(String[] engines, int games, long seed) {
+		this.engines = engines;
+		this.games = games;
+		this.seed = seed;
+		List<int[]> all = new ArrayList<int[]>();
+		for (int first = 0; first < engines.length; first++) {
+			for (int second = first + 1; second < engines.length; second++) {
+				all.add(new int[] { first, second });
+			}
+		}
+		pairs = all.toArray(new int[0][]);
+		results = new int[pairs.length][games];
+		for (int[] row : results) {
+			Arrays.fill(row, NOT_PLAYED);
+		}
+	}
+
+	/**
+	 * Plays the games which have not been played yet.
+	 *
+	 * @param threads        the number of threads
+	 * @param checkpointPath the checkpoint file or null
+	 * @throws IOException if the checkpoint cant be read or written
+	 */
+	public void run(int threads, Path checkpointPath) throws IOException {
+		run(threads, checkpointPath, null);
+	}
+
+	/**
+	 * Plays the games which have not been played yet and archives them.
+	 *
+	 * @param threads        the number of threads
+	 * @param checkpointPath the checkpoint file or null
+	 * @param archivePath    the archive of the games or null
+	 * @throws IOException if the checkpoint or the archive cant be read or written
+	 */
+	public void run(int threads, Path checkpointPath, Path archivePath) throws IOException {
+		if (archivePath != null) {
+			archive = new RecordWriter(archivePath);
+		}
+		if (checkpointPath != null) {
+			load(checkpointPath);
+			checkpoint = Files.newBufferedWriter(checkpointPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+			byte[] written = Files.readAllBytes(checkpointPath);
+			if (written.length == 0) {
+				checkpoint.write(getHeader());
+				checkpoint.newLine();
+			} else if (written[written.length - 1] != '\n') {
+				checkpoint.newLine();
+			}
+			checkpoint.flush();
+		}
+		List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+		for (int pair = 0; pair < pairs.length; pair++) {
+			for (int game = 0; game < games; game++) {
+				if (results[pair][game] == NOT_PLAYED) {
+					int p = pair;
+					int g = game;
+					tasks.add(ForkJoinTask.adapt(() -> record(p, g, play(p, g))));
+				}
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+		try {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		} finally {
+			pool.shutdown();
+			try {
+				if (checkpoint != null) {
+					checkpoint.close();
+				}
+			} finally {
+				if (archive != null) {
+					archive.close();
+					archive = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the first line of a checkpoint, which identifies the tournament
+	 */
+	private String getHeader() {
+		return "tournament " + seed + " " + games + " " + String.join(" ", engines);
+	}
+
+	/**
+	 * Reads the results of a checkpoint. A line that has not been written
+	 * completely is ignored.
+	 */
+	private void load(Path path) throws IOException {
+		if (!Files.exists(path) || Files.size(path) == 0) {
+			return;
+		}
+		List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+		if (!lines.get(0).equals(getHeader())) {
+			throw new IOException(path + " belongs to another tournament");
+		}
+		for (String line : lines.subList(1, lines.size())) {
+			String[] values = line.split(" ");
+			try {
+				int pair = Integer.parseInt(values[0]);
+				int game = Integer.parseInt(values[1]);
+				int result = Integer.parseInt(values[2]);
+				if (result >= LOSS && result <= WIN) {
+					results[pair][game] = result;
+				}
+			} catch (RuntimeException e) {
+				// an incomplete line
+			}
+		}
+	}
+
+	/**
+	 * Stores the result of a game and appends it to the checkpoint.
+	 */
+	private synchronized void record(int pair, int game, int result) {
+		results[pair][game] = result;
+		if (checkpoint != null) {
+			try {
+				checkpoint.write(pair + " " + game + " " + result);
+				checkpoint.newLine();
+				checkpoint.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Appends a finished game to the archive.
+	 */
+	private synchronized void archive(Game game) {
+		try {
+			archive.append(game);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Plays a game of a pair. The first engine of the pair starts the even games.
+	 * The turns are also played on a {@link Game} if the games are archived.
+	 *
+	 * @param pair the number of the pair
+	 * @param game the number of the game
+	 * @return the result from the view of the first engine of the pair
+	 */
+	public int play(int pair, int game) {
+		long gameSeed = mix(mix(seed) + pair * 0x9E3779B97F4A7C15L + game);
+		Random random = new Random(gameSeed);
+		int firstSide = game & 1;
+		Engine[] players = new Engine[2];
+		players[firstSide] = Engine.create(engines[pairs[pair][0]], random.nextLong());
+		players[firstSide ^ 1] = Engine.create(engines[pairs[pair][1]], random.nextLong());
+		Game played = createGame(createFigures(random));
+		Position position = new Position(played);
+		int result = DRAW;
+		for (int turns = 0; turns < MAX_TURNS; turns++) {
+			int side = position.getSide();
+			int turn = players[side].choose(position);
+			if (turn == 0) {
+				result = side == firstSide ? LOSS : WIN;
+				break;
+			}
+			if (archive != null) {
+				for (String command : TurnCode.toCommands(turn, position)) {
+					played.execute(command);
+				}
+			}
+			position.make(turn);
+			if (position.isGameOver()) {
+				result = position.getWinner() == firstSide ? WIN : LOSS;
+				break;
+			}
+		}
+		if (archive != null) {
+			archive(played);
+		}
+		return result;
+	}
+
+	/**
+	 * Places the four figures on different random cells.
+	 */
+	static Position createOpening(Random random) {
+		return new Position(createGame(createFigures(random)));
+	}
+
+	/**
+	 * @return the four figures on different random cells, as the arguments of
+	 *         {@link Game#initializePlayers}
+	 */
+	private static String[] createFigures(Random random) {
+		String[] figures = new String[4];
+		int used = 0;
+		for (int figure = 0; figure < 4; figure++) {
+			int square;
+			do {
+				square = random.nextInt(BitBoard.CELLS);
+			} while ((used >> square & 1) != 0);
+			used |= 1 << square;
+			figures[figure] = (char) ('a' + figure) + ";" + BitBoard.getX(square) + ";" + BitBoard.getY(square);
+		}
+		return figures;
+	}
+
+	private static Game createGame(String[] figures) {
+		Game game = new Game(NullSink.INSTANCE);
+		game.initializePlayers(figures[0], figures[1], figures[2], figures[3]);
+		return game;
+	}
+
+	/**
+	 * Spreads the bits of a number, so that close numbers give unrelated seeds.
+	 */
+	static long mix(long value) {
+		value = (value ^ value >>> 33) * 0xFF51AFD7ED558CCDL;
+		value = (value ^ value >>> 33) * 0xC4CEB9FE1A85EC53L;
+		return value ^ value >>> 33;
+	}
+
+	public String[] getEngines() {
+		return engines;
+	}
+
+	/**
+	 * @return the first and the second engine of each pair
+	 */
+	public int[][] getPairs() {
+		return pairs;
+	}
+
+	/**
+	 * @return the result of each game of each pair, -1 for a game not played
+	 */
+	public int[][] getResults() {
+		return results;
+	}
+
+	public static void main(String[] args) {
+		List<String> engines = new ArrayList<String>();
+		long seed = 1;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Path checkpointPath = null;
+		Path archivePath = null;
+		int games;
+		try {
+			games = Integer.parseInt(args[0]);
+			for (int i = 1; i < args.length; i++) {
+				if (args[i].equals("-seed")) {
+					seed = Long.parseLong(args[++i]);
+				} else if (args[i].equals("-threads")) {
+					threads = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-checkpoint")) {
+					checkpointPath = Paths.get(args[++i]);
+				} else if (args[i].equals("-archive")) {
+					archivePath = Paths.get(args[++i]);
+				} else {
+					Engine.create(args[i], 0);
+					engines.add(args[i]);
+				}
+			}
+		} catch (RuntimeException e) {
+			engines.clear();
+			games = 0;
+		}
+		if (engines.size() < 2 || games < 1) {
+			Terminal.printError("please enter the number of games and at least two engines.");
+			return;
+		}
+		Tournament tournament = new Tournament(engines.toArray(new String[0]), games, seed);
+		long start = System.nanoTime();
+		try {
+			tournament.run(threads, checkpointPath, archivePath);
+		} catch (IOException e) {
+			Terminal.printError(e.getMessage());
+			return;
+		}
+		Standings.print(tournament);
+		Terminal.printLine("");
+		Terminal.printLine("time: " + (System.nanoTime() - start) / 1000000 + " ms");
+	}
+}